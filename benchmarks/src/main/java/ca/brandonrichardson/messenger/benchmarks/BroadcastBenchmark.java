@@ -0,0 +1,138 @@
+package ca.brandonrichardson.messenger.benchmarks;
+
+import ca.brandonrichardson.messenger.common.dto.Message;
+import ca.brandonrichardson.messenger.common.dto.builder.TransportEntityBuilder;
+import ca.brandonrichardson.messenger.common.wire.CodecType;
+import ca.brandonrichardson.messenger.server.core.Connection;
+import ca.brandonrichardson.messenger.server.core.ConnectionPool;
+import ca.brandonrichardson.messenger.server.core.ConnectionTransport;
+import ca.brandonrichardson.messenger.server.session.SessionPrototype;
+import ca.brandonrichardson.messenger.server.svc.request.RequestChain;
+import ca.brandonrichardson.messenger.server.svc.request.RequestHandlerFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a message through RequestHandlerFilter in-process, broadcasting it to N pooled connections whose transports
+ * hand every frame to a Blackhole rather than a socket.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j.configuration=log4j-benchmarks.properties")
+public class BroadcastBenchmark {
+
+    private static final RequestChain END_OF_CHAIN = new RequestChain() {};
+
+    @Param({"10", "100", "1000"})
+    private int recipients;
+
+    @Param({"SERIALIZED", "BINARY"})
+    private CodecType codecType;
+
+    private List<Connection> connections;
+
+    private Connection sender;
+
+    private RequestHandlerFilter filter;
+
+    private Message message;
+
+    @Setup(Level.Trial)
+    public void setup(final Blackhole blackhole) {
+        ConnectionPool pool = ConnectionPool.getInstance();
+        pool.setMaxPoolSize(this.recipients);
+
+        this.connections = new ArrayList<>(this.recipients);
+        for(int i = 0; i < this.recipients; i++) {
+            Connection connection = pool.acquireConnection();
+            connection.setSocket(new Socket());
+            connection.setCodec(this.codecType.getCodec());
+            connection.setSession(new SessionPrototype("user" + i, "key" + i));
+            connection.setTransport(new BlackholeTransport(blackhole));
+
+            this.connections.add(connection);
+        }
+
+        this.sender = this.connections.get(0);
+        this.filter = new RequestHandlerFilter();
+        this.message = TransportEntityBuilder.message()
+                .setUsername(this.sender.getSession().getUsername())
+                .setMessage("Hi there this is a message!")
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for(Connection connection : this.connections) {
+            connection.reset();
+            ConnectionPool.getInstance().releaseConnection(connection);
+        }
+    }
+
+    @Benchmark
+    public void broadcast() throws IOException, NoSuchAlgorithmException {
+        //the filter strips the session key before broadcasting
+        this.message.setSessionKey(this.sender.getSession().getSessionKey());
+        this.filter.process(this.sender, this.message, END_OF_CHAIN);
+    }
+
+    private static class BlackholeTransport implements ConnectionTransport {
+
+        private final Blackhole blackhole;
+
+        private BlackholeTransport(final Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(final ByteBuffer frame) {
+            this.blackhole.consume(frame);
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void enableCompression(final int threshold) {
+        }
+
+        @Override
+        public int getBacklog() {
+            return 0;
+        }
+
+        @Override
+        public long getLag() {
+            return 0;
+        }
+
+        @Override
+        public long getDroppedFrames() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package ca.brandonrichardson.messenger.benchmarks;
+
+import ca.brandonrichardson.messenger.common.dto.Message;
+import ca.brandonrichardson.messenger.common.dto.TransportEntity;
+import ca.brandonrichardson.messenger.common.dto.builder.TransportEntityBuilder;
+import ca.brandonrichardson.messenger.common.wire.CodecType;
+import ca.brandonrichardson.messenger.common.wire.EntityCodec;
+import ca.brandonrichardson.messenger.common.wire.Frames;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    @Param({"SERIALIZED", "BINARY"})
+    private CodecType codecType;
+
+    private Message message;
+
+    private EntityCodec codec;
+
+    private ByteBuffer payload;
+
+    @Setup
+    public void setup() throws IOException {
+        this.message = TransportEntityBuilder.message()
+                .setUsername("alice")
+                .setMessage("Hi there this is a message!")
+                .build();
+
+        this.codec = this.codecType.getCodec();
+
+        ByteBuffer frame = this.codec.encode(this.message);
+        frame.position(Frames.HEADER_LENGTH);
+        this.payload = frame.slice();
+    }
+
+    @Benchmark
+    public ByteBuffer encode() throws IOException {
+        return this.codec.encode(this.message);
+    }
+
+    @Benchmark
+    public TransportEntity decode() throws IOException {
+        return this.codec.decode(this.payload);
+    }
+}
@@ -0,0 +1,52 @@
+package ca.brandonrichardson.messenger.benchmarks;
+
+import ca.brandonrichardson.messenger.common.keygen.strategy.HashGeneratorStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashGeneratorBenchmark {
+
+    private byte[] input;
+
+    private HashGeneratorStrategy sha256, hmacSha256;
+
+    @Setup
+    public void setup() {
+        this.input = "username-with-server-secret".getBytes(StandardCharsets.UTF_8);
+        this.sha256 = HashGeneratorStrategy.sha256();
+        this.hmacSha256 = HashGeneratorStrategy.hmacSha256("server-secret".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public String sha256() throws NoSuchAlgorithmException {
+        return this.sha256.generate(this.input);
+    }
+
+    @Benchmark
+    public byte[] sha256Bytes() throws NoSuchAlgorithmException {
+        return this.sha256.generateBytes(this.input);
+    }
+
+    @Benchmark
+    public String hmacSha256() throws NoSuchAlgorithmException {
+        return this.hmacSha256.generate(this.input);
+    }
+}
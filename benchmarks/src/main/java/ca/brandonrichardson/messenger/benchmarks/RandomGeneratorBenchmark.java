@@ -0,0 +1,85 @@
+package ca.brandonrichardson.messenger.benchmarks;
+
+import ca.brandonrichardson.messenger.common.keygen.strategy.RandomGeneratorStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomGeneratorBenchmark {
+
+    @Param({"16", "64"})
+    private int keySize;
+
+    private RandomGeneratorStrategy alphanumeric, alphanumericLowercase, alphanumericUppercase, numeric, alphabetic, secureAlphanumeric;
+
+    private byte[] buffer;
+
+    @Setup
+    public void setup() {
+        this.alphanumeric = RandomGeneratorStrategy.alphanumeric();
+        this.alphanumericLowercase = RandomGeneratorStrategy.alphanumericLowercase();
+        this.alphanumericUppercase = RandomGeneratorStrategy.alphanumericUppercase();
+        this.numeric = RandomGeneratorStrategy.numeric();
+        this.alphabetic = RandomGeneratorStrategy.alphabetic();
+        this.secureAlphanumeric = RandomGeneratorStrategy.secureAlphanumeric();
+        this.buffer = new byte[this.keySize];
+    }
+
+    @Benchmark
+    public String alphanumeric() {
+        return this.alphanumeric.generate(this.keySize);
+    }
+
+    @Benchmark
+    public String alphanumericLowercase() {
+        return this.alphanumericLowercase.generate(this.keySize);
+    }
+
+    @Benchmark
+    public String alphanumericUppercase() {
+        return this.alphanumericUppercase.generate(this.keySize);
+    }
+
+    @Benchmark
+    public String numeric() {
+        return this.numeric.generate(this.keySize);
+    }
+
+    @Benchmark
+    public String alphabetic() {
+        return this.alphabetic.generate(this.keySize);
+    }
+
+    @Benchmark
+    public String secureAlphanumeric() {
+        return this.secureAlphanumeric.generate(this.keySize);
+    }
+
+    @Benchmark
+    public byte[] alphanumericFill() {
+        this.alphanumeric.fill(this.buffer, 0, this.keySize);
+        return this.buffer;
+    }
+
+    @Benchmark
+    public byte[] secureAlphanumericFill() {
+        this.secureAlphanumeric.fill(this.buffer, 0, this.keySize);
+        return this.buffer;
+    }
+}
@@ -0,0 +1,64 @@
+package ca.brandonrichardson.messenger.benchmarks;
+
+import ca.brandonrichardson.messenger.common.dto.Message;
+import ca.brandonrichardson.messenger.common.dto.builder.TransportEntityBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Baseline cost of plain Java serialization of a Message, as done through ObjectOutputStream.writeObject.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private Message message;
+
+    private byte[] serialized;
+
+    @Setup
+    public void setup() throws IOException {
+        this.message = TransportEntityBuilder.message()
+                .setUsername("alice")
+                .setMessage("Hi there this is a message!")
+                .build();
+
+        this.serialized = this.writeObject();
+    }
+
+    @Benchmark
+    public byte[] writeObject() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(this.message);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Object readObject() throws IOException, ClassNotFoundException {
+        try(ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(this.serialized))) {
+            return in.readObject();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package ca.brandonrichardson.messenger.benchmarks;
+
+import ca.brandonrichardson.messenger.common.dto.Authentication;
+import ca.brandonrichardson.messenger.common.dto.Message;
+import ca.brandonrichardson.messenger.common.dto.builder.TransportEntityBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the cost of constructing entities through the public builder entry points, including the timestamp given to
+ * every entity.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransportEntityBuilderBenchmark {
+
+    @Benchmark
+    public Message message() {
+        return TransportEntityBuilder.message()
+                .setUsername("alice")
+                .setMessage("Hi there this is a message!")
+                .build();
+    }
+
+    @Benchmark
+    public Authentication auth() {
+        return TransportEntityBuilder.auth()
+                .setUsername("alice")
+                .build();
+    }
+}
@@ -8,6 +8,7 @@ import ca.brandonrichardson.messenger.client.ui.LoginInterface;
 import ca.brandonrichardson.messenger.client.ui.parseopt.ParsedCommand;
 import ca.brandonrichardson.messenger.client.ui.SimpleInterface;
 import ca.brandonrichardson.messenger.common.dto.Message;
+import ca.brandonrichardson.messenger.common.dto.Subscription;
 import ca.brandonrichardson.messenger.common.dto.TransportEntity;
 import ca.brandonrichardson.messenger.common.dto.builder.TransportEntityBuilder;
 import ca.brandonrichardson.messenger.common.keygen.KeyGenerator;
@@ -16,11 +17,16 @@ import ca.brandonrichardson.messenger.common.keygen.strategy.RandomGeneratorStra
 
 import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Optional;
 
 public class MessengerClient {
 
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssxxx").withZone(ZoneId.systemDefault());
+
     private Interface consoleInterface;
 
     private boolean isAuthenticated;
@@ -33,7 +39,10 @@ public class MessengerClient {
         this.userSession = new Session();
 
         ConnectionListener.getInstance().registerObserver(error -> {
-            if(!error) {
+            if(!error && ConnectionListener.getInstance().isRejected()) {
+                System.out.println("The server rejected your username; it must have between 1 and 32 characters.");
+                System.exit(1);
+            } else if(!error) {
                 System.out.println("Your connection has been terminated due to an unexpected error.");
                 System.exit(1);
             }
@@ -79,7 +88,19 @@ public class MessengerClient {
                         this.read();
                         break;
                     case "send":
-                        this.send(command.get().getCommandArguments()[0]);
+                        this.send(command.get().getCommandArguments()[0], null);
+                        break;
+                    case "post":
+                        this.send(command.get().getCommandArguments()[1], command.get().getCommandArguments()[0]);
+                        break;
+                    case "msg":
+                        this.sendDirect(command.get().getCommandArguments()[1], command.get().getCommandArguments()[0]);
+                        break;
+                    case "join":
+                        this.subscribe(TransportEntityBuilder.join().setChannel(command.get().getCommandArguments()[0]).build());
+                        break;
+                    case "leave":
+                        this.subscribe(TransportEntityBuilder.leave().setChannel(command.get().getCommandArguments()[0]).build());
                         break;
                     case "logout":
                         this.logout();
@@ -96,13 +117,13 @@ public class MessengerClient {
 
     private void login(final String username, final String ip, final String portNumber) {
         try {
-            String temporary = KeyGenerator.generateKey(16, RandomGeneratorStrategy.alphanumeric());
-            String key = KeyGenerator.generateKey(temporary::getBytes, HashGeneratorStrategy.SHA1HashStrategy());
+            String temporary = KeyGenerator.generateKey(16, RandomGeneratorStrategy.secureAlphanumeric());
+            String key = KeyGenerator.generateKey(temporary::getBytes, HashGeneratorStrategy.sha256());
 
             this.userSession.setUsername(username);
             this.userSession.setSessionKey(key);
         } catch (NoSuchAlgorithmException e) {
-            System.err.println("Unable to generate key using SHA1HashStrategy.");
+            System.err.println("Unable to generate key using SHA-256.");
             System.exit(1);
         }
 
@@ -131,14 +152,44 @@ public class MessengerClient {
         for(TransportEntity message : messages) {
             if(message instanceof Message) {
                 Message currentMessage = (Message)message;
-                System.out.printf("%s %s - %s\n", message.getTimestamp(), currentMessage.getSenderUsername(), currentMessage.getMessage());
+                if(currentMessage.getType() == TransportEntity.EntityType.DIRECT) {
+                    System.out.printf("%s %s -> %s - %s\n", MessengerClient.formatTimestamp(message.getTimestamp()), currentMessage.getSenderUsername(), currentMessage.getRecipientUsername(), currentMessage.getMessage());
+                } else if(currentMessage.getChannel() != null) {
+                    System.out.printf("%s #%s %s - %s\n", MessengerClient.formatTimestamp(message.getTimestamp()), currentMessage.getChannel(), currentMessage.getSenderUsername(), currentMessage.getMessage());
+                } else {
+                    System.out.printf("%s %s - %s\n", MessengerClient.formatTimestamp(message.getTimestamp()), currentMessage.getSenderUsername(), currentMessage.getMessage());
+                }
+            } else if(message instanceof Subscription) {
+                Subscription subscription = (Subscription)message;
+                System.out.printf("%s %s #%s\n", MessengerClient.formatTimestamp(message.getTimestamp()), subscription.getType() == TransportEntity.EntityType.JOIN ? "Joined" : "Left", subscription.getChannel());
             }
         }
     }
 
-    private void send(final String message) {
+    private static String formatTimestamp(final long timestamp) {
+        return TIMESTAMP_FORMAT.format(Instant.ofEpochMilli(timestamp));
+    }
+
+    private void send(final String message, final String channel) {
         Message messageEntity = TransportEntityBuilder.message()
                 .setMessage(message)
+                .setChannel(channel)
+                .setUsername(this.userSession.getUsername())
+                .setSessionKey(this.userSession.getSessionKey())
+                .build();
+
+        try {
+            ConnectionListener.getInstance().send(messageEntity);
+        } catch (IOException e) {
+            System.err.println("Unable to send message due to unexpected IOException.");
+            System.exit(1);
+        }
+    }
+
+    private void sendDirect(final String message, final String recipient) {
+        Message messageEntity = TransportEntityBuilder.direct()
+                .setMessage(message)
+                .setRecipient(recipient)
                 .setUsername(this.userSession.getUsername())
                 .setSessionKey(this.userSession.getSessionKey())
                 .build();
@@ -150,4 +201,13 @@ public class MessengerClient {
             System.exit(1);
         }
     }
+
+    private void subscribe(final Subscription subscription) {
+        try {
+            ConnectionListener.getInstance().send(subscription);
+        } catch (IOException e) {
+            System.err.println("Unable to send subscription due to unexpected IOException.");
+            System.exit(1);
+        }
+    }
 }
@@ -5,11 +5,20 @@ import ca.brandonrichardson.messenger.client.session.Session;
 import ca.brandonrichardson.messenger.common.dto.Authentication;
 import ca.brandonrichardson.messenger.common.dto.TransportEntity;
 import ca.brandonrichardson.messenger.common.dto.builder.TransportEntityBuilder;
-
+import ca.brandonrichardson.messenger.common.wire.CodecType;
+import ca.brandonrichardson.messenger.common.wire.EntityCodec;
+import ca.brandonrichardson.messenger.common.wire.FrameDeflater;
+import ca.brandonrichardson.messenger.common.wire.FrameInflater;
+import ca.brandonrichardson.messenger.common.wire.Frames;
+import ca.brandonrichardson.messenger.common.wire.Handshake;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.net.Socket;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
@@ -17,6 +26,8 @@ import java.util.Queue;
 
 public class ConnectionListener implements Runnable, Observable {
 
+    private static final int HISTORY_COUNT = 20;
+
     private List<Observer> observers;
 
     private Queue<TransportEntity> messageInputQueue;
@@ -25,9 +36,13 @@ public class ConnectionListener implements Runnable, Observable {
 
     private ServerDetails serverDetails;
 
-    private ObjectOutputStream outputStream;
+    private DataOutputStream outputStream;
+
+    private EntityCodec codec;
 
-    private volatile boolean running, hasFailed;
+    private FrameDeflater deflater;
+
+    private volatile boolean running, hasFailed, rejected;
 
     private ConnectionListener() {
         this.observers = new ArrayList<>();
@@ -36,6 +51,9 @@ public class ConnectionListener implements Runnable, Observable {
         this.session = null;
         this.running = false;
         this.hasFailed = false;
+        this.rejected = false;
+        this.codec = null;
+        this.deflater = null;
     }
 
     public void start(final Session session, final String ipAddress, final int portNumber) {
@@ -43,6 +61,7 @@ public class ConnectionListener implements Runnable, Observable {
             this.session = session;
             this.serverDetails = new ServerDetails(ipAddress, portNumber);
             this.hasFailed = false;
+            this.rejected = false;
 
             (new Thread(this)).start();
         }
@@ -56,31 +75,45 @@ public class ConnectionListener implements Runnable, Observable {
     public void run() {
         this.running = true;
 
+        FrameInflater inflater = new FrameInflater();
         try(Socket socket = new Socket(this.serverDetails.getServerAddress(), this.serverDetails.getServerPortNumber());
-            ObjectOutputStream messageOut = new ObjectOutputStream(socket.getOutputStream());
-            ObjectInputStream messageIn = new ObjectInputStream(socket.getInputStream())) {
+            DataOutputStream messageOut = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream messageIn = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
 
             this.outputStream = messageOut;
 
+            Handshake.offer(messageOut, CodecType.BINARY, CodecType.SERIALIZED);
+            messageOut.flush();
+            this.codec = Handshake.awaitSelection(messageIn).getCodec();
+
             Authentication auth = TransportEntityBuilder.auth()
                     .setSessionKey(session.getSessionKey())
                     .setUsername(session.getUsername())
+                    .setHistoryCount(HISTORY_COUNT)
+                    .setCompression(true)
                     .build();
 
-            messageOut.writeObject(auth);
+            Frames.write(messageOut, this.codec.encode(auth));
             messageOut.flush();
 
             boolean unverified = true;
             while(this.running && unverified) {
-                Object objectIn;
-                if((objectIn = messageIn.readObject()) == null) {
-                    continue;
-                }
+                TransportEntity objectIn = this.codec.decode(inflater.read(messageIn));
 
                 if(objectIn instanceof Authentication) {
                     Authentication signedAuth = (Authentication)objectIn;
+
+                    //the server replies without a session key when it refuses the username
+                    if(signedAuth.getSessionKey() == null) {
+                        this.rejected = true;
+                        throw new IOException("Authentication rejected by server.");
+                    }
+
                     this.session.setUsername(signedAuth.getUsername());
                     this.session.setSessionKey(signedAuth.getSessionKey());
+                    if(signedAuth.isCompression()) {
+                        this.enableCompression();
+                    }
 
                     unverified = false;
                 }
@@ -89,16 +122,16 @@ public class ConnectionListener implements Runnable, Observable {
             this.notifyObservers(true);
 
             while(this.running) {
-                Object message;
-                if((message = messageIn.readObject()) != null) {
-                    this.messageInputQueue.add((TransportEntity) message);
-                }
+                TransportEntity message = this.codec.decode(inflater.read(messageIn));
+                this.messageInputQueue.add(message);
             }
-        } catch (IOException | ClassNotFoundException e) {
+        } catch (IOException e) {
             this.hasFailed = true;
 
             this.notifyObservers(false);
         } finally {
+            inflater.end();
+            this.disableCompression();
             this.messageInputQueue = new LinkedList<>();
             this.serverDetails = null;
             this.session = null;
@@ -112,10 +145,30 @@ public class ConnectionListener implements Runnable, Observable {
         }
 
         entity.setSessionKey(this.session.getSessionKey());
-        outputStream.writeObject(entity);
+        ByteBuffer frame = this.codec.encode(entity);
+        ByteBuffer compressed = this.deflater != null ? this.deflater.deflate(frame) : null;
+        Frames.write(outputStream, compressed != null ? compressed : frame);
         outputStream.flush();
     }
 
+    private synchronized void enableCompression() {
+        this.deflater = new FrameDeflater(FrameDeflater.DEFAULT_THRESHOLD);
+    }
+
+    private synchronized void disableCompression() {
+        if(this.deflater != null) {
+            this.deflater.end();
+            this.deflater = null;
+        }
+    }
+
+    /**
+     * @return true if the last connection failed because the server rejected the authentication.
+     */
+    public boolean isRejected() {
+        return this.rejected;
+    }
+
     public synchronized List<TransportEntity> getMessages() {
         if(this.hasFailed) {
             throw new RuntimeException("Thread has failed unexpectedly.");
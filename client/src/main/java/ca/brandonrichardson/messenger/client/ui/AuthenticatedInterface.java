@@ -18,6 +18,10 @@ public class AuthenticatedInterface extends Interface {
         commands = UsageDescriptionList.of(
                 new CommandUsageDescription("read", "Show any new messages received."),
                 new CommandUsageDescription("send", List.of("<message>"), "Send a new message."),
+                new CommandUsageDescription("join", List.of("<channel>"), "Join a channel."),
+                new CommandUsageDescription("leave", List.of("<channel>"), "Leave a channel."),
+                new CommandUsageDescription("post", List.of("<channel>", "<message>"), "Send a new message to a channel you have joined."),
+                new CommandUsageDescription("msg", List.of("<username>", "<message>"), "Send a direct message to a connected user."),
                 new CommandUsageDescription("logout","Gracefully log out of this session.")
         );
     }
@@ -48,6 +52,12 @@ public class AuthenticatedInterface extends Interface {
             if(command.getCommand().equals(arguments[0])) {
                 if(command.getCommand().equals("send")) {
                     arguments = new String[]{String.join(" ", arguments)};
+                } else if(command.getCommand().equals("post") || command.getCommand().equals("msg")) {
+                    if(arguments.length < 3) {
+                        return Optional.empty();
+                    }
+
+                    arguments = new String[]{arguments[1], String.join(" ", Arrays.copyOfRange(arguments, 2, arguments.length))};
                 } else {
                     arguments = Arrays.copyOfRange(arguments, 1, arguments.length);
                 }
@@ -9,5 +9,13 @@ import lombok.Setter;
 @RequiredArgsConstructor
 public class Authentication extends TransportEntity {
 
+    private static final long serialVersionUID = 1L;
+
     private String username;
+
+    private int historyCount;
+
+    private long historySince;
+
+    private boolean compression;
 }
@@ -9,7 +9,13 @@ import lombok.Setter;
 @RequiredArgsConstructor
 public class Message extends TransportEntity {
 
+    private static final long serialVersionUID = 1L;
+
     private String senderUsername;
 
     private String message;
+
+    private String channel;
+
+    private String recipientUsername;
 }
@@ -0,0 +1,15 @@
+package ca.brandonrichardson.messenger.common.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@RequiredArgsConstructor
+public class Subscription extends TransportEntity {
+
+    private static final long serialVersionUID = 1L;
+
+    private String channel;
+}
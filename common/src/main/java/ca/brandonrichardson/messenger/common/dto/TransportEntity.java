@@ -11,7 +11,12 @@ import java.io.Serializable;
 @RequiredArgsConstructor
 public abstract class TransportEntity implements Serializable {
 
-    private String timestamp;
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Time the entity was created, in epoch milliseconds.
+     */
+    private long timestamp;
 
     private String sessionKey;
 
@@ -19,6 +24,9 @@ public abstract class TransportEntity implements Serializable {
 
     public enum EntityType {
         AUTH,
-        MESSAGE
+        MESSAGE,
+        JOIN,
+        LEAVE,
+        DIRECT
     }
 }
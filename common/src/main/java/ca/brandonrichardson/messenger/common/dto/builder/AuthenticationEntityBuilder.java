@@ -22,6 +22,30 @@ public final class AuthenticationEntityBuilder {
         return this;
     }
 
+    /**
+     * Request that the server replays up to count recent messages once the session is established.
+     */
+    public AuthenticationEntityBuilder setHistoryCount(final int count) {
+        this.auth.setHistoryCount(count);
+        return this;
+    }
+
+    /**
+     * Request that the server replays recent messages it received at or after the given epoch millisecond.
+     */
+    public AuthenticationEntityBuilder setHistorySince(final long since) {
+        this.auth.setHistorySince(since);
+        return this;
+    }
+
+    /**
+     * Offer to compress large frames, or in a reply, accept the offer.
+     */
+    public AuthenticationEntityBuilder setCompression(final boolean compression) {
+        this.auth.setCompression(compression);
+        return this;
+    }
+
     public Authentication build() {
         return this.auth;
     }
@@ -8,8 +8,12 @@ public final class MessageEntityBuilder {
     private Message message;
 
     public MessageEntityBuilder(final Message message) {
+        this(message, TransportEntity.EntityType.MESSAGE);
+    }
+
+    public MessageEntityBuilder(final Message message, final TransportEntity.EntityType type) {
         this.message = message;
-        this.message.setType(TransportEntity.EntityType.MESSAGE);
+        this.message.setType(type);
     }
 
     public MessageEntityBuilder setUsername(final String username) {
@@ -27,6 +31,16 @@ public final class MessageEntityBuilder {
         return this;
     }
 
+    public MessageEntityBuilder setChannel(final String channel) {
+        this.message.setChannel(channel);
+        return this;
+    }
+
+    public MessageEntityBuilder setRecipient(final String recipientUsername) {
+        this.message.setRecipientUsername(recipientUsername);
+        return this;
+    }
+
     public Message build() {
         return this.message;
     }
@@ -0,0 +1,28 @@
+package ca.brandonrichardson.messenger.common.dto.builder;
+
+import ca.brandonrichardson.messenger.common.dto.Subscription;
+import ca.brandonrichardson.messenger.common.dto.TransportEntity;
+
+public final class SubscriptionEntityBuilder {
+
+    private Subscription subscription;
+
+    public SubscriptionEntityBuilder(final Subscription subscription, final TransportEntity.EntityType type) {
+        this.subscription = subscription;
+        this.subscription.setType(type);
+    }
+
+    public SubscriptionEntityBuilder setChannel(final String channel) {
+        this.subscription.setChannel(channel);
+        return this;
+    }
+
+    public SubscriptionEntityBuilder setSessionKey(final String sessionKey) {
+        this.subscription.setSessionKey(sessionKey);
+        return this;
+    }
+
+    public Subscription build() {
+        return this.subscription;
+    }
+}
@@ -2,11 +2,8 @@ package ca.brandonrichardson.messenger.common.dto.builder;
 
 import ca.brandonrichardson.messenger.common.dto.Authentication;
 import ca.brandonrichardson.messenger.common.dto.Message;
-
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
-import java.util.Date;
-import java.util.TimeZone;
+import ca.brandonrichardson.messenger.common.dto.Subscription;
+import ca.brandonrichardson.messenger.common.dto.TransportEntity;
 
 public final class TransportEntityBuilder {
 
@@ -16,38 +13,36 @@ public final class TransportEntityBuilder {
 
     public static AuthenticationEntityBuilder auth() {
         Authentication auth = new Authentication();
-        auth.setTimestamp(TransportEntityBuilder.generateUTCTimestamp());
+        auth.setTimestamp(System.currentTimeMillis());
 
         return new AuthenticationEntityBuilder(auth);
     }
 
     public static MessageEntityBuilder message() {
         Message message = new Message();
-        message.setTimestamp(TransportEntityBuilder.generateUTCTimestamp());
+        message.setTimestamp(System.currentTimeMillis());
 
         return new MessageEntityBuilder(message);
     }
 
-    private static String generateUTCTimestamp() {
-        Calendar cal = Calendar.getInstance();
-        Date date = cal.getTime();
-        String timestamp = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss").format(date);
+    public static MessageEntityBuilder direct() {
+        Message message = new Message();
+        message.setTimestamp(System.currentTimeMillis());
 
-        TimeZone tz = TimeZone.getDefault();
-        int UTC_Offset = tz.getOffset(cal.getTimeInMillis());
-        if(UTC_Offset / 1000 / 60 / 60 >= 0) {
-            timestamp += "+";
-        } else {
-            timestamp += "-";
-        }
+        return new MessageEntityBuilder(message, TransportEntity.EntityType.DIRECT);
+    }
 
-        if(Math.abs(UTC_Offset / 1000 / 60 / 60) < 10) {
-            timestamp += "0";
-        }
+    public static SubscriptionEntityBuilder join() {
+        Subscription subscription = new Subscription();
+        subscription.setTimestamp(System.currentTimeMillis());
+
+        return new SubscriptionEntityBuilder(subscription, TransportEntity.EntityType.JOIN);
+    }
 
-        timestamp += Math.abs(UTC_Offset / 1000 / 60 / 60) + ":";
-        timestamp += UTC_Offset % (1000*60*60) + "0";
+    public static SubscriptionEntityBuilder leave() {
+        Subscription subscription = new Subscription();
+        subscription.setTimestamp(System.currentTimeMillis());
 
-        return timestamp;
+        return new SubscriptionEntityBuilder(subscription, TransportEntity.EntityType.LEAVE);
     }
 }
@@ -0,0 +1,31 @@
+package ca.brandonrichardson.messenger.common.keygen;
+
+/**
+ * Lowercase hexadecimal encoding through a lookup table.
+ */
+public final class Hex {
+
+    private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+
+    private Hex() {
+        throw new IllegalStateException("Instantiation of Hex disallowed.");
+    }
+
+    public static String encode(final byte[] bytes) {
+        char[] hex = new char[bytes.length << 1];
+        Hex.encode(bytes, hex, 0);
+
+        return new String(hex);
+    }
+
+    /**
+     * Encode bytes into two characters each, starting at the given offset of the buffer.
+     */
+    public static void encode(final byte[] bytes, final char[] hex, final int offset) {
+        int pos = offset;
+        for(byte b : bytes) {
+            hex[pos++] = DIGITS[(b >>> 4) & 0x0F];
+            hex[pos++] = DIGITS[b & 0x0F];
+        }
+    }
+}
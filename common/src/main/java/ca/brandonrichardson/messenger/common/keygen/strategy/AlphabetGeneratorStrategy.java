@@ -0,0 +1,177 @@
+package ca.brandonrichardson.messenger.common.keygen.strategy;
+
+import java.security.SecureRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates keys of characters drawn uniformly from an ASCII alphabet, several characters from each 64-bit random
+ * draw. Keys can be generated into caller-supplied buffers without allocating.
+ */
+abstract class AlphabetGeneratorStrategy implements RandomGeneratorStrategy {
+
+    protected final char[] alphabet;
+
+    private AlphabetGeneratorStrategy(final String alphabet) {
+        if(alphabet.length() < 2) {
+            throw new IllegalArgumentException("Alphabet must have at least two characters.");
+        }
+
+        for(int i = 0; i < alphabet.length(); i++) {
+            if(alphabet.charAt(i) > 0x7F) {
+                throw new IllegalArgumentException("Alphabet must only contain ASCII characters.");
+            }
+        }
+
+        this.alphabet = alphabet.toCharArray();
+    }
+
+    /**
+     * Backed by the thread-local pseudorandom generator; fast, but not suitable for secrets.
+     */
+    static AlphabetGeneratorStrategy fast(final String alphabet) {
+        return new Fast(alphabet);
+    }
+
+    /**
+     * Backed by a thread-local SecureRandom, from which random bytes are drawn in bulk.
+     */
+    static AlphabetGeneratorStrategy secure(final String alphabet) {
+        return new Secure(alphabet);
+    }
+
+    @Override
+    public String generate(final int keySize) {
+        char[] key = new char[keySize];
+        this.fill(key, 0, keySize);
+
+        return new String(key);
+    }
+
+    /**
+     * Maps each 32-bit half of a draw onto the alphabet by multiplying it by the alphabet's length and keeping the high
+     * bits, rejecting the rare products that would bias the result (Lemire's method). Random bits are cheap here, so
+     * this trades them for the branch mispredictions that rejecting whole indices would cost.
+     */
+    private static final class Fast extends AlphabetGeneratorStrategy {
+
+        private final long threshold;
+
+        private Fast(final String alphabet) {
+            super(alphabet);
+            this.threshold = (1L << 32) % this.alphabet.length;
+        }
+
+        @Override
+        public void fill(final char[] key, final int offset, final int length) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int pos = offset, end = offset + length;
+            while(pos < end) {
+                long draw = random.nextLong();
+                for(int i = 0; i < 2 && pos < end; i++, draw >>>= 32) {
+                    long product = (draw & 0xFFFFFFFFL) * this.alphabet.length;
+                    if((product & 0xFFFFFFFFL) >= this.threshold) {
+                        key[pos++] = this.alphabet[(int) (product >>> 32)];
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void fill(final byte[] key, final int offset, final int length) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int pos = offset, end = offset + length;
+            while(pos < end) {
+                long draw = random.nextLong();
+                for(int i = 0; i < 2 && pos < end; i++, draw >>>= 32) {
+                    long product = (draw & 0xFFFFFFFFL) * this.alphabet.length;
+                    if((product & 0xFFFFFFFFL) >= this.threshold) {
+                        key[pos++] = (byte) this.alphabet[(int) (product >>> 32)];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits each draw into as many indices as it has room for, taking just enough bits per character to index the
+     * alphabet and discarding indices beyond its end. Secure random bytes are comparatively expensive, so this uses as
+     * few of them as it can.
+     */
+    private static final class Secure extends AlphabetGeneratorStrategy {
+
+        private static final ThreadLocal<SecureSource> SOURCE = ThreadLocal.withInitial(SecureSource::new);
+
+        private final int bits, mask, charsPerDraw;
+
+        private Secure(final String alphabet) {
+            super(alphabet);
+            this.bits = 32 - Integer.numberOfLeadingZeros(this.alphabet.length - 1);
+            this.mask = (1 << this.bits) - 1;
+            this.charsPerDraw = 64 / this.bits;
+        }
+
+        @Override
+        public void fill(final char[] key, final int offset, final int length) {
+            SecureSource source = SOURCE.get();
+            int pos = offset, end = offset + length;
+            while(pos < end) {
+                long draw = source.nextLong();
+                for(int i = 0; i < this.charsPerDraw && pos < end; i++, draw >>>= this.bits) {
+                    int index = (int) draw & this.mask;
+                    if(index < this.alphabet.length) {
+                        key[pos++] = this.alphabet[index];
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void fill(final byte[] key, final int offset, final int length) {
+            SecureSource source = SOURCE.get();
+            int pos = offset, end = offset + length;
+            while(pos < end) {
+                long draw = source.nextLong();
+                for(int i = 0; i < this.charsPerDraw && pos < end; i++, draw >>>= this.bits) {
+                    int index = (int) draw & this.mask;
+                    if(index < this.alphabet.length) {
+                        key[pos++] = (byte) this.alphabet[index];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Random bytes drawn from a SecureRandom a block at a time, since each call to it is comparatively expensive.
+     */
+    private static final class SecureSource {
+
+        private static final int BLOCK_SIZE = 256;
+
+        private final SecureRandom random;
+
+        private final byte[] block;
+
+        private int position;
+
+        private SecureSource() {
+            this.random = new SecureRandom();
+            this.block = new byte[BLOCK_SIZE];
+            this.position = BLOCK_SIZE;
+        }
+
+        private long nextLong() {
+            if(this.position == BLOCK_SIZE) {
+                this.random.nextBytes(this.block);
+                this.position = 0;
+            }
+
+            long value = 0;
+            for(int i = 0; i < Long.BYTES; i++) {
+                value = (value << 8) | (this.block[this.position++] & 0xFF);
+            }
+
+            return value;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package ca.brandonrichardson.messenger.common.keygen.strategy;
+
+import ca.brandonrichardson.messenger.common.keygen.Hex;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Hashes input with a MessageDigest, reusing one digest per thread rather than looking up a provider for every hash.
+ */
+final class DigestGeneratorStrategy implements HashGeneratorStrategy {
+
+    static final DigestGeneratorStrategy SHA_256 = new DigestGeneratorStrategy("SHA-256");
+
+    static final DigestGeneratorStrategy SHA_512 = new DigestGeneratorStrategy("SHA-512");
+
+    private final String algorithm;
+
+    private final ThreadLocal<MessageDigest> digests;
+
+    DigestGeneratorStrategy(final String algorithm) {
+        this.algorithm = algorithm;
+        this.digests = new ThreadLocal<>();
+    }
+
+    @Override
+    public String generate(final byte[] input) throws NoSuchAlgorithmException {
+        return Hex.encode(this.generateBytes(input));
+    }
+
+    @Override
+    public byte[] generateBytes(final byte[] input) throws NoSuchAlgorithmException {
+        MessageDigest digest = this.digests.get();
+        if(digest == null) {
+            digest = MessageDigest.getInstance(this.algorithm);
+            this.digests.set(digest);
+        }
+
+        return digest.digest(input);
+    }
+}
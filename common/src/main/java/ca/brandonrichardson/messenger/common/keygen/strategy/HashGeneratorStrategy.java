@@ -1,6 +1,6 @@
 package ca.brandonrichardson.messenger.common.keygen.strategy;
 
-import java.security.MessageDigest;
+import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
 
 @FunctionalInterface
@@ -8,17 +8,37 @@ public interface HashGeneratorStrategy extends GeneratorStrategy {
 
     String generate(final byte[] input) throws NoSuchAlgorithmException;
 
-    static HashGeneratorStrategy SHA1HashStrategy() {
-        return input -> {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] encodedHash = digest.digest(input);
+    /**
+     * Generate the key as raw bytes. Strategies that hash their input return the hash itself, skipping hex encoding.
+     */
+    default byte[] generateBytes(final byte[] input) throws NoSuchAlgorithmException {
+        return this.generate(input).getBytes(StandardCharsets.UTF_8);
+    }
+
+    static HashGeneratorStrategy sha256() {
+        return DigestGeneratorStrategy.SHA_256;
+    }
+
+    static HashGeneratorStrategy sha512() {
+        return DigestGeneratorStrategy.SHA_512;
+    }
 
-            final StringBuilder builder = new StringBuilder();
-            for(byte b : encodedHash) {
-                builder.append(String.format("%02x", b));
-            }
+    /**
+     * Hash with any algorithm supported by MessageDigest.
+     */
+    static HashGeneratorStrategy digest(final String algorithm) {
+        return new DigestGeneratorStrategy(algorithm);
+    }
 
-            return builder.toString();
-        };
+    static HashGeneratorStrategy hmacSha256(final byte[] key) {
+        return new MacGeneratorStrategy("HmacSHA256", key);
+    }
+
+    /**
+     * @deprecated despite its name, this has always hashed with SHA-256; use {@link #sha256()}.
+     */
+    @Deprecated
+    static HashGeneratorStrategy SHA1HashStrategy() {
+        return HashGeneratorStrategy.sha256();
     }
 }
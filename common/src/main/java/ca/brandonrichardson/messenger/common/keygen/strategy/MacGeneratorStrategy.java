@@ -0,0 +1,45 @@
+package ca.brandonrichardson.messenger.common.keygen.strategy;
+
+import ca.brandonrichardson.messenger.common.keygen.Hex;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Hashes input with a keyed MAC such as HMAC-SHA256, reusing one initialized Mac per thread.
+ */
+final class MacGeneratorStrategy implements HashGeneratorStrategy {
+
+    private final SecretKeySpec key;
+
+    private final ThreadLocal<Mac> macs;
+
+    MacGeneratorStrategy(final String algorithm, final byte[] key) {
+        this.key = new SecretKeySpec(key, algorithm);
+        this.macs = new ThreadLocal<>();
+    }
+
+    @Override
+    public String generate(final byte[] input) throws NoSuchAlgorithmException {
+        return Hex.encode(this.generateBytes(input));
+    }
+
+    @Override
+    public byte[] generateBytes(final byte[] input) throws NoSuchAlgorithmException {
+        Mac mac = this.macs.get();
+        if(mac == null) {
+            mac = Mac.getInstance(this.key.getAlgorithm());
+            try {
+                mac.init(this.key);
+            } catch (InvalidKeyException e) {
+                throw new IllegalStateException(String.format("Unable to initialize %s.", this.key.getAlgorithm()), e);
+            }
+
+            this.macs.set(mac);
+        }
+
+        return mac.doFinal(input);
+    }
+}
@@ -1,71 +1,71 @@
 package ca.brandonrichardson.messenger.common.keygen.strategy;
 
-import java.util.Random;
+import java.nio.charset.StandardCharsets;
 
 @FunctionalInterface
 public interface RandomGeneratorStrategy extends GeneratorStrategy {
 
+    String NUMERIC = "0123456789";
+
+    String LOWERCASE = "abcdefghijklmnopqrstuvwxyz";
+
+    String UPPERCASE = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
     String generate(int keySize);
 
+    /**
+     * Generate a key of length characters into the given buffer.
+     */
+    default void fill(final char[] key, final int offset, final int length) {
+        this.generate(length).getChars(0, length, key, offset);
+    }
+
+    /**
+     * Generate a key of length ASCII characters into the given buffer.
+     */
+    default void fill(final byte[] key, final int offset, final int length) {
+        byte[] generated = this.generate(length).getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(generated, 0, key, offset, length);
+    }
+
     static RandomGeneratorStrategy alphanumeric() {
-        return keySize -> {
-            Random charTypeChooser = new Random();
-            Random numberChooser = new Random();
-            Random characterChooser = new Random();
-            Random caseChooser = new Random();
-
-            char[] key = new char[keySize];
-            for(int pos = 0; pos < keySize; pos++) {
-                if(charTypeChooser.nextInt(2) == 0) {
-                    if(caseChooser.nextInt(2) == 0) {
-                        key[pos] = (char) (characterChooser.nextInt(26) + 65);
-                    } else {
-                        key[pos] = (char) (characterChooser.nextInt(26) + 97);
-                    }
-                } else {
-                    key[pos] = (char) (48 + numberChooser.nextInt(10));
-                }
-            }
-
-            return new String(key);
-        };
+        return AlphabetGeneratorStrategy.fast(UPPERCASE + LOWERCASE + NUMERIC);
     }
 
     static RandomGeneratorStrategy alphanumericLowercase() {
-        return keySize -> alphanumeric().generate(keySize).toLowerCase();
+        return AlphabetGeneratorStrategy.fast(LOWERCASE + NUMERIC);
     }
 
     static RandomGeneratorStrategy alphanumericUppercase() {
-        return keySize -> alphanumeric().generate(keySize).toUpperCase();
+        return AlphabetGeneratorStrategy.fast(UPPERCASE + NUMERIC);
     }
 
     static RandomGeneratorStrategy numeric() {
-        return keySize -> {
-            Random numberChooser = new Random();
+        return AlphabetGeneratorStrategy.fast(NUMERIC);
+    }
+
+    static RandomGeneratorStrategy alphabetic() {
+        return AlphabetGeneratorStrategy.fast(UPPERCASE + LOWERCASE);
+    }
 
-            char[] key = new char[keySize];
-            for(int pos = 0; pos < keySize; pos++) {
-                key[pos] = (char) (48 + numberChooser.nextInt(10));
-            }
+    /**
+     * Keys of characters from the given ASCII alphabet, from a fast source that is not suitable for secrets.
+     */
+    static RandomGeneratorStrategy alphabet(final String characters) {
+        return AlphabetGeneratorStrategy.fast(characters);
+    }
 
-            return new String(key);
-        };
+    /**
+     * Alphanumeric keys from a SecureRandom source, suitable for session keys.
+     */
+    static RandomGeneratorStrategy secureAlphanumeric() {
+        return AlphabetGeneratorStrategy.secure(UPPERCASE + LOWERCASE + NUMERIC);
     }
 
-    static RandomGeneratorStrategy alphabetic() {
-        return keySize -> {
-            Random characterChooser = new Random(), caseChooser = new Random();
-
-            char[] key = new char[keySize];
-            for(int pos = 0; pos < keySize; pos++) {
-                if(caseChooser.nextInt(2) == 0) {
-                    key[pos] = (char) (characterChooser.nextInt(26) + 65);
-                } else {
-                    key[pos] = (char) (characterChooser.nextInt(26) + 97);
-                }
-            }
-
-            return new String(key);
-        };
+    /**
+     * Keys of characters from the given ASCII alphabet, from a SecureRandom source.
+     */
+    static RandomGeneratorStrategy secureAlphabet(final String characters) {
+        return AlphabetGeneratorStrategy.secure(characters);
     }
 }
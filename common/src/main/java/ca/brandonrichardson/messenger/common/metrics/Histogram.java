@@ -0,0 +1,155 @@
+package ca.brandonrichardson.messenger.common.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative long values, such as latencies in nanoseconds. Values are recorded into
+ * log-linear buckets: every power of two is split into 32 linear sub-buckets, so recorded values are accurate to
+ * within about 3% regardless of magnitude, and recording is a single atomic increment.
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts;
+
+    private final LongAdder totalCount, totalSum;
+
+    private final LongAccumulator maxValue;
+
+    public Histogram() {
+        this.counts = new AtomicLongArray(BUCKET_COUNT);
+        this.totalCount = new LongAdder();
+        this.totalSum = new LongAdder();
+        this.maxValue = new LongAccumulator(Math::max, 0);
+    }
+
+    public void record(final long value) {
+        long clamped = Math.max(0, value);
+        this.counts.incrementAndGet(Histogram.indexOf(clamped));
+        this.totalCount.increment();
+        this.totalSum.add(clamped);
+        this.maxValue.accumulate(clamped);
+    }
+
+    public long getCount() {
+        return this.totalCount.sum();
+    }
+
+    public long getMax() {
+        return this.maxValue.get();
+    }
+
+    public double getMean() {
+        long count = this.totalCount.sum();
+        return count == 0 ? 0 : (double) this.totalSum.sum() / count;
+    }
+
+    /**
+     * Returns the value at the given percentile, between 0 and 100. The value reported is the midpoint of the bucket
+     * holding the percentile, capped to the largest value recorded.
+     */
+    public long getValueAtPercentile(final double percentile) {
+        return this.valuesAtPercentiles(percentile)[0];
+    }
+
+    /**
+     * Take a consistent snapshot: the bucket counts are read once, and the count and percentiles are all derived from
+     * that one reading, so the percentiles never decrease even while values are being recorded.
+     */
+    public HistogramSnapshot snapshot() {
+        long max = this.getMax();
+        long[] counts = this.copyCounts();
+        long count = Histogram.sumOf(counts);
+
+        long[] values = Histogram.valuesAtPercentiles(counts, count, max, 50, 99, 99.9);
+        return new HistogramSnapshot(count, count == 0 ? 0 : (double) this.totalSum.sum() / count, values[0], values[1], values[2], max);
+    }
+
+    /**
+     * Returns the values at several percentiles, given in increasing order, from a single reading of the buckets.
+     */
+    private long[] valuesAtPercentiles(final double... percentiles) {
+        long max = this.getMax();
+        long[] counts = this.copyCounts();
+        return Histogram.valuesAtPercentiles(counts, Histogram.sumOf(counts), max, percentiles);
+    }
+
+    private long[] copyCounts() {
+        long[] copy = new long[BUCKET_COUNT];
+        for(int index = 0; index < BUCKET_COUNT; index++) {
+            copy[index] = this.counts.get(index);
+        }
+
+        return copy;
+    }
+
+    private static long sumOf(final long[] counts) {
+        long sum = 0;
+        for(long count : counts) {
+            sum += count;
+        }
+
+        return sum;
+    }
+
+    private static long[] valuesAtPercentiles(final long[] counts, final long count, final long max, final double... percentiles) {
+        long[] values = new long[percentiles.length];
+        if(count == 0) {
+            return values;
+        }
+
+        int next = 0;
+        long seen = 0;
+        for(int index = 0; index < BUCKET_COUNT && next < percentiles.length; index++) {
+            seen += counts[index];
+            while(next < percentiles.length && seen >= Histogram.targetOf(count, percentiles[next])) {
+                values[next++] = Math.min(Histogram.midpointOf(index), max);
+            }
+        }
+
+        return values;
+    }
+
+    private static long targetOf(final long count, final double percentile) {
+        return Math.max(1, (long) Math.ceil(count * Math.min(100.0, percentile) / 100.0));
+    }
+
+    public void reset() {
+        for(int index = 0; index < BUCKET_COUNT; index++) {
+            this.counts.set(index, 0);
+        }
+
+        this.totalCount.reset();
+        this.totalSum.reset();
+        this.maxValue.reset();
+    }
+
+    static int indexOf(final long value) {
+        if(value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKET_COUNT - 1);
+
+        return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long midpointOf(final int index) {
+        if(index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long lowest = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+
+        return lowest + ((1L << shift) >>> 1);
+    }
+}
@@ -0,0 +1,26 @@
+package ca.brandonrichardson.messenger.common.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class HistogramSnapshot {
+
+    private long count;
+
+    private double mean;
+
+    private long p50;
+
+    private long p99;
+
+    private long p999;
+
+    private long max;
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.0f p50=%d p99=%d p999=%d max=%d", this.count, this.mean, this.p50, this.p99, this.p999, this.max);
+    }
+}
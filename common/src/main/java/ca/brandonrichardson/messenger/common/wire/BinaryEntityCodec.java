@@ -0,0 +1,186 @@
+package ca.brandonrichardson.messenger.common.wire;
+
+import ca.brandonrichardson.messenger.common.dto.Authentication;
+import ca.brandonrichardson.messenger.common.dto.Message;
+import ca.brandonrichardson.messenger.common.dto.Subscription;
+import ca.brandonrichardson.messenger.common.dto.TransportEntity;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact encoding of transport entities. A payload is made of a single tag byte identifying the entity type,
+ * followed by the common entity fields and then the fields specific to that type. Strings are encoded as UTF-8,
+ * prefixed by their length plus one as a varint; a length prefix of zero denotes a null string.
+ */
+public class BinaryEntityCodec implements EntityCodec {
+
+    private static final byte AUTH_TAG = 1;
+
+    private static final byte MESSAGE_TAG = 2;
+
+    private static final byte JOIN_TAG = 3;
+
+    private static final byte LEAVE_TAG = 4;
+
+    private static final byte DIRECT_TAG = 5;
+
+    @Override
+    public ByteBuffer encode(final TransportEntity entity) throws IOException {
+        FrameOutputStream frame = new FrameOutputStream(128);
+
+        switch(entity.getType()) {
+            case AUTH:
+                frame.write(AUTH_TAG);
+                BinaryEntityCodec.writeCommonFields(frame, entity);
+                frame.writeString(((Authentication) entity).getUsername());
+                frame.writeVarInt(((Authentication) entity).getHistoryCount());
+                frame.writeVarLong(((Authentication) entity).getHistorySince());
+                frame.write(((Authentication) entity).isCompression() ? 1 : 0);
+                break;
+            case MESSAGE:
+                frame.write(MESSAGE_TAG);
+                BinaryEntityCodec.writeCommonFields(frame, entity);
+                frame.writeString(((Message) entity).getSenderUsername());
+                frame.writeString(((Message) entity).getMessage());
+                frame.writeString(((Message) entity).getChannel());
+                break;
+            case DIRECT:
+                frame.write(DIRECT_TAG);
+                BinaryEntityCodec.writeCommonFields(frame, entity);
+                frame.writeString(((Message) entity).getSenderUsername());
+                frame.writeString(((Message) entity).getMessage());
+                frame.writeString(((Message) entity).getRecipientUsername());
+                break;
+            case JOIN:
+                frame.write(JOIN_TAG);
+                BinaryEntityCodec.writeCommonFields(frame, entity);
+                frame.writeString(((Subscription) entity).getChannel());
+                break;
+            case LEAVE:
+                frame.write(LEAVE_TAG);
+                BinaryEntityCodec.writeCommonFields(frame, entity);
+                frame.writeString(((Subscription) entity).getChannel());
+                break;
+            default:
+                throw new IOException(String.format("Unable to encode entity of type %s.", entity.getType()));
+        }
+
+        return frame.toFrame();
+    }
+
+    @Override
+    public TransportEntity decode(final ByteBuffer payload) throws IOException {
+        ByteBuffer in = payload.duplicate();
+
+        try {
+            byte tag = in.get();
+            switch(tag) {
+                case AUTH_TAG:
+                    Authentication auth = new Authentication();
+                    auth.setType(TransportEntity.EntityType.AUTH);
+                    BinaryEntityCodec.readCommonFields(in, auth);
+                    auth.setUsername(BinaryEntityCodec.readString(in));
+                    auth.setHistoryCount(BinaryEntityCodec.readVarInt(in));
+                    auth.setHistorySince(BinaryEntityCodec.readVarLong(in));
+                    auth.setCompression(in.get() != 0);
+                    return auth;
+                case MESSAGE_TAG:
+                    Message message = new Message();
+                    message.setType(TransportEntity.EntityType.MESSAGE);
+                    BinaryEntityCodec.readCommonFields(in, message);
+                    message.setSenderUsername(BinaryEntityCodec.readString(in));
+                    message.setMessage(BinaryEntityCodec.readString(in));
+                    message.setChannel(BinaryEntityCodec.readString(in));
+                    return message;
+                case DIRECT_TAG:
+                    Message direct = new Message();
+                    direct.setType(TransportEntity.EntityType.DIRECT);
+                    BinaryEntityCodec.readCommonFields(in, direct);
+                    direct.setSenderUsername(BinaryEntityCodec.readString(in));
+                    direct.setMessage(BinaryEntityCodec.readString(in));
+                    direct.setRecipientUsername(BinaryEntityCodec.readString(in));
+                    return direct;
+                case JOIN_TAG:
+                    return BinaryEntityCodec.readSubscription(in, TransportEntity.EntityType.JOIN);
+                case LEAVE_TAG:
+                    return BinaryEntityCodec.readSubscription(in, TransportEntity.EntityType.LEAVE);
+                default:
+                    throw new StreamCorruptedException(String.format("Unknown entity tag %d.", tag));
+            }
+        } catch (BufferUnderflowException e) {
+            throw new StreamCorruptedException("Truncated entity payload.");
+        }
+    }
+
+    private static Subscription readSubscription(final ByteBuffer in, final TransportEntity.EntityType type) throws StreamCorruptedException {
+        Subscription subscription = new Subscription();
+        subscription.setType(type);
+        BinaryEntityCodec.readCommonFields(in, subscription);
+        subscription.setChannel(BinaryEntityCodec.readString(in));
+
+        return subscription;
+    }
+
+    private static void writeCommonFields(final FrameOutputStream frame, final TransportEntity entity) {
+        frame.writeVarLong(entity.getTimestamp());
+        frame.writeString(entity.getSessionKey());
+    }
+
+    private static void readCommonFields(final ByteBuffer in, final TransportEntity entity) throws StreamCorruptedException {
+        entity.setTimestamp(BinaryEntityCodec.readVarLong(in));
+        entity.setSessionKey(BinaryEntityCodec.readString(in));
+    }
+
+    static int readVarInt(final ByteBuffer in) throws StreamCorruptedException {
+        int value = 0;
+        for(int shift = 0; shift < 32; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if(b >= 0) {
+                return value;
+            }
+        }
+
+        throw new StreamCorruptedException("Malformed varint.");
+    }
+
+    static long readVarLong(final ByteBuffer in) throws StreamCorruptedException {
+        long value = 0;
+        for(int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if(b >= 0) {
+                return value;
+            }
+        }
+
+        throw new StreamCorruptedException("Malformed varint.");
+    }
+
+    static String readString(final ByteBuffer in) throws StreamCorruptedException {
+        int length = BinaryEntityCodec.readVarInt(in) - 1;
+        if(length < 0) {
+            return null;
+        }
+
+        if(length > in.remaining()) {
+            throw new StreamCorruptedException("Truncated string.");
+        }
+
+        String value;
+        if(in.hasArray()) {
+            value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        return value;
+    }
+}
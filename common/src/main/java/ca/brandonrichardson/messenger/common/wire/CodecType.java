@@ -0,0 +1,30 @@
+package ca.brandonrichardson.messenger.common.wire;
+
+import lombok.Getter;
+
+import java.util.Optional;
+
+@Getter
+public enum CodecType {
+    SERIALIZED((byte) 1, new SerializedEntityCodec()),
+    BINARY((byte) 2, new BinaryEntityCodec());
+
+    private final byte id;
+
+    private final EntityCodec codec;
+
+    CodecType(final byte id, final EntityCodec codec) {
+        this.id = id;
+        this.codec = codec;
+    }
+
+    public static Optional<CodecType> of(final byte id) {
+        for(CodecType type : CodecType.values()) {
+            if(type.id == id) {
+                return Optional.of(type);
+            }
+        }
+
+        return Optional.empty();
+    }
+}
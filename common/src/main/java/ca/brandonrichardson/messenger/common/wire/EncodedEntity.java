@@ -0,0 +1,36 @@
+package ca.brandonrichardson.messenger.common.wire;
+
+import ca.brandonrichardson.messenger.common.dto.TransportEntity;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * An entity that is encoded at most once per codec, no matter how many connections it is sent to. Every caller
+ * receives its own read-only view of the same immutable frame.
+ */
+public class EncodedEntity {
+
+    @Getter
+    private final TransportEntity entity;
+
+    private final Map<EntityCodec, ByteBuffer> frames;
+
+    public EncodedEntity(final TransportEntity entity) {
+        this.entity = entity;
+        this.frames = new IdentityHashMap<>(4);
+    }
+
+    public synchronized ByteBuffer frame(final EntityCodec codec) throws IOException {
+        ByteBuffer frame = this.frames.get(codec);
+        if(frame == null) {
+            frame = codec.encode(this.entity).asReadOnlyBuffer();
+            this.frames.put(codec, frame);
+        }
+
+        return frame.duplicate();
+    }
+}
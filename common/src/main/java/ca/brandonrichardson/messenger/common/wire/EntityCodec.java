@@ -0,0 +1,19 @@
+package ca.brandonrichardson.messenger.common.wire;
+
+import ca.brandonrichardson.messenger.common.dto.TransportEntity;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public interface EntityCodec {
+
+    /**
+     * Encode the given entity into a complete frame, including the length header, ready to be written to a socket.
+     */
+    ByteBuffer encode(final TransportEntity entity) throws IOException;
+
+    /**
+     * Decode a single entity from the payload of a frame, excluding the length header.
+     */
+    TransportEntity decode(final ByteBuffer payload) throws IOException;
+}
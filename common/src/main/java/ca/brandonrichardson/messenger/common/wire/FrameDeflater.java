@@ -0,0 +1,114 @@
+package ca.brandonrichardson.messenger.common.wire;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses one or more complete frames into a single compressed frame, for a connection that has negotiated
+ * compression. Frames smaller than the threshold, or that do not shrink, are left as they are.
+ *
+ * A deflater belongs to a single writer: its Deflater and buffers are reused for every frame, and the frame it
+ * returns is only valid until the next call.
+ */
+public class FrameDeflater {
+
+    public static final int DEFAULT_THRESHOLD = 512;
+
+    private final Deflater deflater;
+
+    private final int threshold;
+
+    private byte[] input, output;
+
+    public FrameDeflater(final int threshold) {
+        this.deflater = new Deflater(Deflater.BEST_SPEED);
+        this.threshold = threshold;
+        this.input = new byte[0];
+        this.output = new byte[Frames.HEADER_LENGTH + 1024];
+    }
+
+    /**
+     * @return a compressed frame holding the given frames, or null if they should be sent as they are.
+     */
+    public ByteBuffer deflate(final ByteBuffer frames) {
+        int length = frames.remaining();
+        if(length < this.threshold || length > Frames.MAX_FRAME_LENGTH) {
+            return null;
+        }
+
+        if(frames.hasArray()) {
+            return this.deflate(frames.array(), frames.arrayOffset() + frames.position(), length);
+        }
+
+        this.ensureInputCapacity(length);
+        frames.duplicate().get(this.input, 0, length);
+        return this.deflate(this.input, 0, length);
+    }
+
+    /**
+     * @return a compressed frame holding the frames in the given range, or null if they should be sent as they are.
+     */
+    public ByteBuffer deflate(final ByteBuffer[] frames, final int offset, final int count) {
+        long length = 0;
+        for(int i = offset; i < offset + count; i++) {
+            length += frames[i].remaining();
+        }
+
+        if(length < this.threshold || length > Frames.MAX_FRAME_LENGTH) {
+            return null;
+        }
+
+        if(count == 1) {
+            return this.deflate(frames[offset]);
+        }
+
+        this.ensureInputCapacity((int) length);
+        int position = 0;
+        for(int i = offset; i < offset + count; i++) {
+            int remaining = frames[i].remaining();
+            frames[i].duplicate().get(this.input, position, remaining);
+            position += remaining;
+        }
+
+        return this.deflate(this.input, 0, position);
+    }
+
+    public void end() {
+        this.deflater.end();
+    }
+
+    private ByteBuffer deflate(final byte[] source, final int offset, final int length) {
+        this.deflater.reset();
+        this.deflater.setInput(source, offset, length);
+        this.deflater.finish();
+
+        int position = Frames.HEADER_LENGTH;
+        while(!this.deflater.finished()) {
+            if(position == this.output.length) {
+                if(position >= Frames.HEADER_LENGTH + length) {
+                    return null;
+                }
+
+                this.output = Arrays.copyOf(this.output, this.output.length << 1);
+            }
+
+            position += this.deflater.deflate(this.output, position, this.output.length - position);
+        }
+
+        int compressed = position - Frames.HEADER_LENGTH;
+        if(compressed >= length) {
+            return null;
+        }
+
+        ByteBuffer frame = ByteBuffer.wrap(this.output, 0, position);
+        frame.putInt(0, Frames.COMPRESSED_FLAG | compressed);
+        return frame;
+    }
+
+    private void ensureInputCapacity(final int length) {
+        if(this.input.length < length) {
+            this.input = new byte[Math.max(length, this.input.length << 1)];
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package ca.brandonrichardson.messenger.common.wire;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads frame payloads, transparently inflating compressed frames into the frames they hold.
+ *
+ * An inflater belongs to a single reader: its Inflater and buffers are reused for every frame, so a payload it
+ * returns is only valid until the next call.
+ */
+public class FrameInflater {
+
+    private final Inflater inflater;
+
+    private byte[] input, output;
+
+    private ByteBuffer inflated;
+
+    public FrameInflater() {
+        this.inflater = new Inflater();
+        this.input = new byte[1024];
+        this.output = new byte[4096];
+        this.inflated = null;
+    }
+
+    /**
+     * Read the next payload from the stream, either from the last compressed frame read or from a new frame.
+     */
+    public ByteBuffer read(final DataInputStream in) throws IOException {
+        ByteBuffer payload = this.next();
+        if(payload != null) {
+            return payload;
+        }
+
+        int header = in.readInt();
+        int length = Frames.lengthOf(header);
+        Frames.checkLength(length);
+
+        if(!Frames.isCompressed(header)) {
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            return ByteBuffer.wrap(bytes);
+        }
+
+        if(this.input.length < length) {
+            this.input = new byte[Math.max(length, this.input.length << 1)];
+        }
+
+        in.readFully(this.input, 0, length);
+        this.inflate(this.input, 0, length);
+
+        payload = this.next();
+        if(payload == null) {
+            throw new StreamCorruptedException("Empty compressed frame.");
+        }
+
+        return payload;
+    }
+
+    /**
+     * Inflate the payload of a compressed frame.
+     *
+     * @return the frames it holds, each with its length header.
+     */
+    public ByteBuffer inflate(final ByteBuffer payload) throws IOException {
+        if(payload.hasArray()) {
+            this.inflate(payload.array(), payload.arrayOffset() + payload.position(), payload.remaining());
+        } else {
+            byte[] bytes = new byte[payload.remaining()];
+            payload.duplicate().get(bytes);
+            this.inflate(bytes, 0, bytes.length);
+        }
+
+        ByteBuffer frames = this.inflated;
+        this.inflated = null;
+        return frames;
+    }
+
+    /**
+     * Take the next frame's payload from a buffer of frames, such as one returned by {@link #inflate(ByteBuffer)}.
+     */
+    public static ByteBuffer nextPayload(final ByteBuffer frames) throws StreamCorruptedException {
+        if(frames.remaining() < Frames.HEADER_LENGTH) {
+            throw new StreamCorruptedException("Truncated compressed frame.");
+        }
+
+        int length = frames.getInt();
+        Frames.checkLength(length);
+        if(length > frames.remaining()) {
+            throw new StreamCorruptedException("Truncated compressed frame.");
+        }
+
+        ByteBuffer payload = frames.slice();
+        payload.limit(length);
+        frames.position(frames.position() + length);
+
+        return payload;
+    }
+
+    public void end() {
+        this.inflater.end();
+    }
+
+    private ByteBuffer next() throws StreamCorruptedException {
+        if(this.inflated == null || !this.inflated.hasRemaining()) {
+            return null;
+        }
+
+        return FrameInflater.nextPayload(this.inflated);
+    }
+
+    private void inflate(final byte[] source, final int offset, final int length) throws IOException {
+        this.inflater.reset();
+        this.inflater.setInput(source, offset, length);
+
+        int position = 0;
+        try {
+            while(!this.inflater.finished()) {
+                if(position == this.output.length) {
+                    if(this.output.length >= Frames.MAX_FRAME_LENGTH) {
+                        throw new StreamCorruptedException("Compressed frame inflates beyond the maximum frame length.");
+                    }
+
+                    this.output = Arrays.copyOf(this.output, Math.min(this.output.length << 1, Frames.MAX_FRAME_LENGTH));
+                }
+
+                int inflated = this.inflater.inflate(this.output, position, this.output.length - position);
+                if(inflated == 0 && (this.inflater.needsInput() || this.inflater.needsDictionary())) {
+                    throw new StreamCorruptedException("Truncated compressed frame.");
+                }
+
+                position += inflated;
+            }
+        } catch (DataFormatException e) {
+            throw new StreamCorruptedException("Malformed compressed frame.");
+        }
+
+        this.inflated = ByteBuffer.wrap(this.output, 0, position);
+    }
+}
@@ -0,0 +1,111 @@
+package ca.brandonrichardson.messenger.common.wire;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class FrameOutputStream extends ByteArrayOutputStream {
+
+    public FrameOutputStream() {
+        this(256);
+    }
+
+    public FrameOutputStream(final int initialCapacity) {
+        super(Math.max(initialCapacity, Frames.HEADER_LENGTH));
+        this.count = Frames.HEADER_LENGTH;
+    }
+
+    public void writeVarInt(int value) {
+        this.ensureCapacity(5);
+        while((value & ~0x7F) != 0) {
+            this.buf[this.count++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        this.buf[this.count++] = (byte) value;
+    }
+
+    public void writeVarLong(long value) {
+        this.ensureCapacity(10);
+        while((value & ~0x7FL) != 0) {
+            this.buf[this.count++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        this.buf[this.count++] = (byte) value;
+    }
+
+    /**
+     * Write a string as a varint length prefix followed by its UTF-8 encoding, without allocating an intermediate
+     * byte array. Null strings are written as a zero length prefix; all other lengths are offset by one.
+     */
+    public void writeString(final String value) {
+        if(value == null) {
+            this.writeVarInt(0);
+            return;
+        }
+
+        int length = FrameOutputStream.utf8Length(value);
+        this.writeVarInt(length + 1);
+        this.ensureCapacity(length);
+
+        for(int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if(c < 0x80) {
+                this.buf[this.count++] = (byte) c;
+            } else if(c < 0x800) {
+                this.buf[this.count++] = (byte) (0xC0 | (c >> 6));
+                this.buf[this.count++] = (byte) (0x80 | (c & 0x3F));
+            } else if(Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                this.buf[this.count++] = (byte) (0xF0 | (codePoint >> 18));
+                this.buf[this.count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                this.buf[this.count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                this.buf[this.count++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if(Character.isSurrogate(c)) {
+                this.buf[this.count++] = (byte) '?';
+            } else {
+                this.buf[this.count++] = (byte) (0xE0 | (c >> 12));
+                this.buf[this.count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                this.buf[this.count++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    public ByteBuffer toFrame() {
+        int length = this.count - Frames.HEADER_LENGTH;
+        this.buf[0] = (byte) (length >>> 24);
+        this.buf[1] = (byte) (length >>> 16);
+        this.buf[2] = (byte) (length >>> 8);
+        this.buf[3] = (byte) length;
+
+        return ByteBuffer.wrap(this.buf, 0, this.count);
+    }
+
+    private void ensureCapacity(final int additional) {
+        if(this.count + additional > this.buf.length) {
+            this.buf = Arrays.copyOf(this.buf, Math.max(this.buf.length << 1, this.count + additional));
+        }
+    }
+
+    private static int utf8Length(final String value) {
+        int length = 0;
+        for(int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if(c < 0x80) {
+                length += 1;
+            } else if(c < 0x800) {
+                length += 2;
+            } else if(Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if(Character.isSurrogate(c)) {
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+
+        return length;
+    }
+}
@@ -0,0 +1,82 @@
+package ca.brandonrichardson.messenger.common.wire;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+
+public final class Frames {
+
+    public static final int HEADER_LENGTH = 4;
+
+    public static final int MAX_FRAME_LENGTH = 1 << 20;
+
+    /**
+     * Set in the length header of a compressed frame, whose payload is a deflated sequence of one or more frames.
+     */
+    public static final int COMPRESSED_FLAG = 0x80000000;
+
+    private Frames() {
+        throw new IllegalStateException("Instantiation of Frames disallowed.");
+    }
+
+    public static ByteBuffer read(final DataInputStream in) throws IOException {
+        int length = in.readInt();
+        Frames.checkLength(length);
+
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+
+        return ByteBuffer.wrap(payload);
+    }
+
+    public static void write(final OutputStream out, final ByteBuffer frame) throws IOException {
+        Frames.write(out, frame, null);
+    }
+
+    /**
+     * Write a frame to the given stream. Frames that are not backed by an accessible array, such as shared read-only
+     * frames, are copied through the scratch buffer, which may be null if the caller has none to reuse.
+     */
+    public static void write(final OutputStream out, final ByteBuffer frame, final byte[] scratch) throws IOException {
+        if(frame.hasArray()) {
+            out.write(frame.array(), frame.arrayOffset() + frame.position(), frame.remaining());
+            return;
+        }
+
+        ByteBuffer source = frame.duplicate();
+        byte[] chunk = scratch != null ? scratch : new byte[Math.min(source.remaining(), 8192)];
+        while(source.hasRemaining()) {
+            int length = Math.min(source.remaining(), chunk.length);
+            source.get(chunk, 0, length);
+            out.write(chunk, 0, length);
+        }
+    }
+
+    public static boolean isCompressed(final int header) {
+        return (header & COMPRESSED_FLAG) != 0;
+    }
+
+    public static int lengthOf(final int header) {
+        return header & ~COMPRESSED_FLAG;
+    }
+
+    public static void checkLength(final int length) throws StreamCorruptedException {
+        if(length < 0 || length > MAX_FRAME_LENGTH) {
+            throw new StreamCorruptedException(String.format("Invalid frame length %d.", length));
+        }
+    }
+
+    public static InputStream asInputStream(final ByteBuffer payload) {
+        if(payload.hasArray()) {
+            return new ByteArrayInputStream(payload.array(), payload.arrayOffset() + payload.position(), payload.remaining());
+        }
+
+        byte[] bytes = new byte[payload.remaining()];
+        payload.duplicate().get(bytes);
+        return new ByteArrayInputStream(bytes);
+    }
+}
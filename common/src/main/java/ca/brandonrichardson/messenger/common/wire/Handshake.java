@@ -0,0 +1,90 @@
+package ca.brandonrichardson.messenger.common.wire;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+/**
+ * Before any frame is exchanged, the client sends a preamble made of a magic number followed by the identifiers of
+ * the codecs it supports, in order of preference. The server replies with the identifier of the first codec it also
+ * supports, and both ends then encode every frame using that codec.
+ */
+public final class Handshake {
+
+    public static final int MAGIC = 0x4A534D31;
+
+    private static final int OFFER_HEADER_LENGTH = 5;
+
+    private Handshake() {
+        throw new IllegalStateException("Instantiation of Handshake disallowed.");
+    }
+
+    public static void offer(final DataOutputStream out, final CodecType... codecs) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(codecs.length);
+        for(CodecType codec : codecs) {
+            out.writeByte(codec.getId());
+        }
+    }
+
+    public static CodecType awaitSelection(final DataInputStream in) throws IOException {
+        byte id = in.readByte();
+        return CodecType.of(id).orElseThrow(() -> new StreamCorruptedException("Server did not select a supported codec."));
+    }
+
+    public static CodecType negotiate(final DataInputStream in) throws IOException {
+        Handshake.checkMagic(in.readInt());
+
+        byte[] offered = new byte[in.readUnsignedByte()];
+        in.readFully(offered);
+
+        return Handshake.select(offered);
+    }
+
+    /**
+     * Non-blocking variant of {@link #negotiate(DataInputStream)}. Returns null, leaving the buffer untouched, if the
+     * complete preamble has not been received yet.
+     */
+    public static CodecType negotiate(final ByteBuffer buffer) throws IOException {
+        if(buffer.remaining() < OFFER_HEADER_LENGTH) {
+            return null;
+        }
+
+        int count = buffer.get(buffer.position() + 4) & 0xFF;
+        if(buffer.remaining() < OFFER_HEADER_LENGTH + count) {
+            return null;
+        }
+
+        Handshake.checkMagic(buffer.getInt());
+        buffer.get();
+
+        byte[] offered = new byte[count];
+        buffer.get(offered);
+
+        return Handshake.select(offered);
+    }
+
+    public static ByteBuffer selection(final CodecType codec) {
+        return ByteBuffer.wrap(new byte[]{codec.getId()});
+    }
+
+    private static CodecType select(final byte[] offered) throws StreamCorruptedException {
+        for(byte id : offered) {
+            Optional<CodecType> codec = CodecType.of(id);
+            if(codec.isPresent()) {
+                return codec.get();
+            }
+        }
+
+        throw new StreamCorruptedException("No mutually supported codec offered.");
+    }
+
+    private static void checkMagic(final int magic) throws StreamCorruptedException {
+        if(magic != MAGIC) {
+            throw new StreamCorruptedException(String.format("Invalid handshake magic %08x.", magic));
+        }
+    }
+}
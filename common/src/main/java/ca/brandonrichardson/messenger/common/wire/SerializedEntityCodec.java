@@ -0,0 +1,47 @@
+package ca.brandonrichardson.messenger.common.wire;
+
+import ca.brandonrichardson.messenger.common.dto.TransportEntity;
+
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Codec using Java serialization. Since any peer can select it in the handshake, before authenticating, decoding is
+ * restricted to the transport entities themselves: every other class is rejected before it is instantiated, and the
+ * depth, number of references and size of the object graph are capped.
+ */
+public class SerializedEntityCodec implements EntityCodec {
+
+    private static final ObjectInputFilter FILTER = ObjectInputFilter.Config.createFilter(String.format(
+            "maxdepth=4;maxrefs=32;maxbytes=%d;%s.*;java.lang.Enum;!*", Frames.MAX_FRAME_LENGTH, TransportEntity.class.getPackageName()));
+
+    @Override
+    public ByteBuffer encode(final TransportEntity entity) throws IOException {
+        FrameOutputStream frame = new FrameOutputStream();
+        try(ObjectOutputStream out = new ObjectOutputStream(frame)) {
+            out.writeObject(entity);
+        }
+
+        return frame.toFrame();
+    }
+
+    @Override
+    public TransportEntity decode(final ByteBuffer payload) throws IOException {
+        try(ObjectInputStream in = new ObjectInputStream(Frames.asInputStream(payload))) {
+            in.setObjectInputFilter(FILTER);
+            Object objIn = in.readObject();
+            if(!(objIn instanceof TransportEntity)) {
+                throw new InvalidObjectException("Frame does not contain a TransportEntity.");
+            }
+
+            return (TransportEntity) objIn;
+        } catch (ClassNotFoundException e) {
+            throw new InvalidClassException(e.getMessage());
+        }
+    }
+}
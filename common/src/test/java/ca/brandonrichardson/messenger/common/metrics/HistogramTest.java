@@ -0,0 +1,92 @@
+package ca.brandonrichardson.messenger.common.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistogramTest {
+
+    @Test
+    void emptyHistogram() {
+        Histogram histogram = new Histogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMax());
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        Histogram histogram = new Histogram();
+        for(int value = 1; value <= 20; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(20, histogram.getCount());
+        assertEquals(10.5, histogram.getMean(), 1e-9);
+        assertEquals(10, histogram.getValueAtPercentile(50));
+        assertEquals(20, histogram.getValueAtPercentile(100));
+        assertEquals(20, histogram.getMax());
+    }
+
+    @Test
+    void percentilesAreWithinBucketPrecision() {
+        Histogram histogram = new Histogram();
+        for(long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        HistogramTest.assertWithin(50_000_000, histogram.getValueAtPercentile(50));
+        HistogramTest.assertWithin(99_000_000, histogram.getValueAtPercentile(99));
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(100_000, snapshot.getCount());
+        HistogramTest.assertWithin(99_900_000, snapshot.getP999());
+        assertEquals(100_000_000, snapshot.getMax());
+    }
+
+    @Test
+    void percentileIsCappedToTheMaximum() {
+        Histogram histogram = new Histogram();
+        histogram.record(1_000_001);
+        assertEquals(1_000_001, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void negativeValuesAreRecordedAsZero() {
+        Histogram histogram = new Histogram();
+        histogram.record(-5);
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+    }
+
+    @Test
+    void bucketsCoverEveryValue() {
+        long[] values = {0, 31, 32, 33, 63, 64, 1_000_000, Long.MAX_VALUE};
+        for(long value : values) {
+            int index = Histogram.indexOf(value);
+            assertTrue(index >= 0);
+            HistogramTest.assertWithin(value, Histogram.midpointOf(index));
+        }
+    }
+
+    @Test
+    void resetClearsEverything() {
+        Histogram histogram = new Histogram();
+        histogram.record(100);
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+    }
+
+    private static void assertWithin(final long expected, final long actual) {
+        //sub-buckets are 1/32 of a power of two wide, so a midpoint is never more than about 3% away
+        assertTrue(Math.abs(actual - expected) <= expected / 32, String.format("expected about %d but was %d", expected, actual));
+    }
+}
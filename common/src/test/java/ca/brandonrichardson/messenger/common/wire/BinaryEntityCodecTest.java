@@ -0,0 +1,135 @@
+package ca.brandonrichardson.messenger.common.wire;
+
+import ca.brandonrichardson.messenger.common.dto.Authentication;
+import ca.brandonrichardson.messenger.common.dto.Message;
+import ca.brandonrichardson.messenger.common.dto.Subscription;
+import ca.brandonrichardson.messenger.common.dto.TransportEntity;
+import ca.brandonrichardson.messenger.common.dto.builder.TransportEntityBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryEntityCodecTest {
+
+    private final BinaryEntityCodec codec = new BinaryEntityCodec();
+
+    @Test
+    void authenticationRoundTrip() throws IOException {
+        Authentication auth = TransportEntityBuilder.auth()
+                .setUsername("brandon")
+                .setSessionKey("key")
+                .setHistoryCount(300)
+                .setHistorySince(Long.MAX_VALUE)
+                .setCompression(true)
+                .build();
+
+        Authentication decoded = (Authentication) this.roundTrip(auth);
+        assertEquals(TransportEntity.EntityType.AUTH, decoded.getType());
+        assertEquals(auth.getTimestamp(), decoded.getTimestamp());
+        assertEquals("brandon", decoded.getUsername());
+        assertEquals("key", decoded.getSessionKey());
+        assertEquals(300, decoded.getHistoryCount());
+        assertEquals(Long.MAX_VALUE, decoded.getHistorySince());
+        assertTrue(decoded.isCompression());
+    }
+
+    @Test
+    void nullFieldsRoundTrip() throws IOException {
+        Authentication decoded = (Authentication) this.roundTrip(TransportEntityBuilder.auth().build());
+        assertNull(decoded.getUsername());
+        assertNull(decoded.getSessionKey());
+        assertFalse(decoded.isCompression());
+
+        Message message = (Message) this.roundTrip(TransportEntityBuilder.message().setUsername("a").build());
+        assertEquals("a", message.getSenderUsername());
+        assertNull(message.getMessage());
+        assertNull(message.getChannel());
+    }
+
+    @Test
+    void emptyStringIsNotNull() throws IOException {
+        Message decoded = (Message) this.roundTrip(TransportEntityBuilder.message().setUsername("").setMessage("").build());
+        assertEquals("", decoded.getSenderUsername());
+        assertEquals("", decoded.getMessage());
+    }
+
+    @Test
+    void messageRoundTrip() throws IOException {
+        //two, three and four byte UTF-8 sequences
+        String text = "caf\u00e9 \u20ac \ud83d\ude00";
+        Message decoded = (Message) this.roundTrip(TransportEntityBuilder.message().setUsername("a").setMessage(text).setChannel("dev").build());
+        assertEquals(TransportEntity.EntityType.MESSAGE, decoded.getType());
+        assertEquals(text, decoded.getMessage());
+        assertEquals("dev", decoded.getChannel());
+    }
+
+    @Test
+    void directAndSubscriptionRoundTrip() throws IOException {
+        Message direct = (Message) this.roundTrip(TransportEntityBuilder.direct().setUsername("a").setRecipient("b").setMessage("hi").build());
+        assertEquals(TransportEntity.EntityType.DIRECT, direct.getType());
+        assertEquals("b", direct.getRecipientUsername());
+
+        Subscription join = (Subscription) this.roundTrip(TransportEntityBuilder.join().setChannel("dev").build());
+        assertEquals(TransportEntity.EntityType.JOIN, join.getType());
+        assertEquals("dev", join.getChannel());
+
+        Subscription leave = (Subscription) this.roundTrip(TransportEntityBuilder.leave().setChannel("dev").build());
+        assertEquals(TransportEntity.EntityType.LEAVE, leave.getType());
+    }
+
+    @Test
+    void varIntRoundTrip() throws IOException {
+        int[] values = {0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE, -1, Integer.MIN_VALUE};
+        for(int value : values) {
+            FrameOutputStream out = new FrameOutputStream();
+            out.writeVarInt(value);
+            assertEquals(value, BinaryEntityCodec.readVarInt(BinaryEntityCodecTest.payloadOf(out.toFrame())));
+        }
+    }
+
+    @Test
+    void varLongRoundTrip() throws IOException {
+        long[] values = {0, 127, 128, Integer.MAX_VALUE + 1L, Long.MAX_VALUE, -1, Long.MIN_VALUE};
+        for(long value : values) {
+            FrameOutputStream out = new FrameOutputStream();
+            out.writeVarLong(value);
+            assertEquals(value, BinaryEntityCodec.readVarLong(BinaryEntityCodecTest.payloadOf(out.toFrame())));
+        }
+    }
+
+    @Test
+    void malformedVarIntIsRejected() {
+        ByteBuffer in = ByteBuffer.wrap(new byte[] {(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0});
+        assertThrows(StreamCorruptedException.class, () -> BinaryEntityCodec.readVarInt(in));
+    }
+
+    @Test
+    void truncatedPayloadIsRejected() throws IOException {
+        ByteBuffer payload = BinaryEntityCodecTest.payloadOf(this.codec.encode(TransportEntityBuilder.message().setUsername("a").setMessage("hello").build()));
+        payload.limit(payload.limit() - 3);
+        assertThrows(StreamCorruptedException.class, () -> this.codec.decode(payload));
+    }
+
+    @Test
+    void unknownTagIsRejected() {
+        assertThrows(StreamCorruptedException.class, () -> this.codec.decode(ByteBuffer.wrap(new byte[] {42})));
+    }
+
+    private TransportEntity roundTrip(final TransportEntity entity) throws IOException {
+        return this.codec.decode(BinaryEntityCodecTest.payloadOf(this.codec.encode(entity)));
+    }
+
+    private static ByteBuffer payloadOf(final ByteBuffer frame) {
+        ByteBuffer payload = frame.duplicate();
+        assertEquals(payload.remaining() - Frames.HEADER_LENGTH, payload.getInt());
+        return payload.slice();
+    }
+}
@@ -0,0 +1,137 @@
+package ca.brandonrichardson.messenger.common.wire;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FramesTest {
+
+    @Test
+    void frameLengthIsCapped() throws IOException {
+        Frames.checkLength(0);
+        Frames.checkLength(Frames.MAX_FRAME_LENGTH);
+        assertThrows(StreamCorruptedException.class, () -> Frames.checkLength(Frames.MAX_FRAME_LENGTH + 1));
+        assertThrows(StreamCorruptedException.class, () -> Frames.checkLength(-1));
+    }
+
+    @Test
+    void oversizedFrameIsRejectedBeforeItsPayloadIsRead() {
+        DataInputStream in = FramesTest.streamOf(Frames.MAX_FRAME_LENGTH + 1, new byte[0]);
+        assertThrows(StreamCorruptedException.class, () -> Frames.read(in));
+    }
+
+    @Test
+    void frameRoundTrip() throws IOException {
+        FrameOutputStream frame = new FrameOutputStream();
+        frame.writeString("hello");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Frames.write(out, frame.toFrame().asReadOnlyBuffer(), new byte[3]);
+
+        ByteBuffer payload = Frames.read(new DataInputStream(new ByteArrayInputStream(out.toByteArray())));
+        assertEquals("hello", BinaryEntityCodec.readString(payload));
+    }
+
+    @Test
+    void compressedFramesRoundTrip() throws IOException {
+        FrameOutputStream first = new FrameOutputStream();
+        first.writeString(FramesTest.repeat('a', 1000));
+        FrameOutputStream second = new FrameOutputStream();
+        second.writeString(FramesTest.repeat('b', 1000));
+
+        FrameDeflater deflater = new FrameDeflater(FrameDeflater.DEFAULT_THRESHOLD);
+        ByteBuffer compressed = deflater.deflate(new ByteBuffer[] {first.toFrame(), second.toFrame()}, 0, 2);
+        assertNotNull(compressed);
+        assertEquals(Frames.COMPRESSED_FLAG, compressed.getInt(compressed.position()) & Frames.COMPRESSED_FLAG);
+
+        byte[] bytes = new byte[compressed.remaining()];
+        compressed.duplicate().get(bytes);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+
+        FrameInflater inflater = new FrameInflater();
+        assertEquals(FramesTest.repeat('a', 1000), BinaryEntityCodec.readString(inflater.read(in)));
+        assertEquals(FramesTest.repeat('b', 1000), BinaryEntityCodec.readString(inflater.read(in)));
+        inflater.end();
+        deflater.end();
+    }
+
+    @Test
+    void compressedFrameInflatingBeyondTheMaximumIsRejected() {
+        byte[] zeros = new byte[Frames.MAX_FRAME_LENGTH + 1];
+        DataInputStream in = FramesTest.streamOf(-1, FramesTest.deflate(zeros));
+
+        FrameInflater inflater = new FrameInflater();
+        assertThrows(StreamCorruptedException.class, () -> inflater.read(in));
+        inflater.end();
+    }
+
+    @Test
+    void truncatedCompressedFrameIsRejected() {
+        byte[] deflated = FramesTest.deflate(new byte[1024]);
+        DataInputStream in = FramesTest.streamOf(-1, Arrays.copyOf(deflated, deflated.length / 2));
+
+        FrameInflater inflater = new FrameInflater();
+        assertThrows(StreamCorruptedException.class, () -> inflater.read(in));
+        inflater.end();
+    }
+
+    @Test
+    void innerFrameLengthIsChecked() {
+        ByteBuffer frames = ByteBuffer.allocate(8).putInt(16).putInt(0);
+        frames.flip();
+        assertThrows(StreamCorruptedException.class, () -> FrameInflater.nextPayload(frames));
+
+        ByteBuffer oversized = ByteBuffer.allocate(4).putInt(Frames.MAX_FRAME_LENGTH + 1);
+        oversized.flip();
+        assertThrows(StreamCorruptedException.class, () -> FrameInflater.nextPayload(oversized));
+    }
+
+    /**
+     * A stream holding a single frame with the given payload. A negative length marks the frame as compressed, with
+     * the payload's own length.
+     */
+    private static DataInputStream streamOf(final int length, final byte[] payload) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(length < 0 ? payload.length | Frames.COMPRESSED_FLAG : length);
+            out.write(payload);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    private static String repeat(final char c, final int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    private static byte[] deflate(final byte[] input) {
+        Deflater deflater = new Deflater();
+        deflater.setInput(input);
+        deflater.finish();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        while(!deflater.finished()) {
+            out.write(chunk, 0, deflater.deflate(chunk));
+        }
+
+        deflater.end();
+        return out.toByteArray();
+    }
+}
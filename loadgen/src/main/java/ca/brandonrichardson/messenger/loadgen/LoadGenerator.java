@@ -0,0 +1,103 @@
+package ca.brandonrichardson.messenger.loadgen;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+public class LoadGenerator {
+
+    private final LoadGeneratorOptions options;
+
+    private final LoadGeneratorStatistics statistics;
+
+    private final List<SimulatedSession> sessions;
+
+    public LoadGenerator(final LoadGeneratorOptions options) {
+        this.options = options;
+        this.statistics = new LoadGeneratorStatistics();
+        this.sessions = new ArrayList<>(options.getSessions());
+    }
+
+    public void start() {
+        System.out.printf("Opening %d sessions to %s:%d; each sending %.2f messages/s of %d characters for %ds.%n",
+                this.options.getSessions(), this.options.getHost(), this.options.getPort(),
+                this.options.getRate(), this.options.getMessageSize(), this.options.getDuration());
+
+        this.connectAll();
+
+        ScheduledExecutorService senders = Executors.newScheduledThreadPool(this.options.getSenderThreads());
+        String padding = LoadGenerator.padding(this.options.getMessageSize());
+        long period = this.options.getRate() > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / this.options.getRate()) : 0;
+        if(period > 0) {
+            for(SimulatedSession session : this.sessions) {
+                long initialDelay = ThreadLocalRandom.current().nextLong(period);
+                senders.scheduleAtFixedRate(() -> session.send(padding), initialDelay, period, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        long start = System.nanoTime();
+        for(int second = 1; second <= this.options.getDuration(); second++) {
+            LoadGenerator.sleepUntil(start + TimeUnit.SECONDS.toNanos(second));
+            this.statistics.report(second);
+        }
+
+        senders.shutdownNow();
+
+        //allow messages in flight to be delivered before reporting
+        LoadGenerator.sleepUntil(System.nanoTime() + TimeUnit.SECONDS.toNanos(2));
+        this.statistics.summarize(this.options.getDuration());
+
+        for(SimulatedSession session : this.sessions) {
+            session.close();
+        }
+    }
+
+    private void connectAll() {
+        ExecutorService connectors = Executors.newFixedThreadPool(this.options.getConnectConcurrency());
+        for(int i = 0; i < this.options.getSessions(); i++) {
+            SimulatedSession session = new SimulatedSession("loadgen-" + i, this.statistics, this.options.isCompression());
+            connectors.execute(() -> {
+                try {
+                    session.connect(this.options.getHost(), this.options.getPort());
+                    this.statistics.recordConnected();
+                    synchronized(this.sessions) {
+                        this.sessions.add(session);
+                    }
+                } catch (IOException e) {
+                    this.statistics.recordFailure();
+                }
+            });
+        }
+
+        connectors.shutdown();
+        try {
+            connectors.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String padding(final int size) {
+        char[] padding = new char[Math.max(0, size)];
+        Arrays.fill(padding, 'x');
+        return new String(padding);
+    }
+
+    private static void sleepUntil(final long deadline) {
+        long remaining;
+        while((remaining = deadline - System.nanoTime()) > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
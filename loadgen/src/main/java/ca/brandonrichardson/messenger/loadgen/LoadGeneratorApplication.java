@@ -0,0 +1,10 @@
+package ca.brandonrichardson.messenger.loadgen;
+
+public class LoadGeneratorApplication {
+
+    public static void main(String[] args) {
+        LoadGeneratorOptions options = LoadGeneratorOptions.parse(args);
+        LoadGenerator generator = new LoadGenerator(options);
+        generator.start();
+    }
+}
@@ -0,0 +1,73 @@
+package ca.brandonrichardson.messenger.loadgen;
+
+import lombok.Getter;
+
+@Getter
+public class LoadGeneratorOptions {
+
+    private String host = "localhost";
+
+    private int port = 5100;
+
+    private int sessions = 100;
+
+    private double rate = 1.0;
+
+    private int duration = 30;
+
+    private int messageSize = 64;
+
+    private int connectConcurrency = 8;
+
+    private int senderThreads = 4;
+
+    private boolean compression = false;
+
+    /**
+     * Parse options given as key=value pairs, for instance {@code sessions=2000 rate=0.5 duration=60}. Rate is the
+     * number of messages sent per second by each session, and duration is in seconds.
+     */
+    public static LoadGeneratorOptions parse(final String[] args) {
+        LoadGeneratorOptions options = new LoadGeneratorOptions();
+        for(String arg : args) {
+            String[] pair = arg.split("=", 2);
+            if(pair.length != 2) {
+                throw new IllegalArgumentException(String.format("Invalid option '%s'; expected key=value.", arg));
+            }
+
+            switch(pair[0]) {
+                case "host":
+                    options.host = pair[1];
+                    break;
+                case "port":
+                    options.port = Integer.parseInt(pair[1]);
+                    break;
+                case "sessions":
+                    options.sessions = Integer.parseInt(pair[1]);
+                    break;
+                case "rate":
+                    options.rate = Double.parseDouble(pair[1]);
+                    break;
+                case "duration":
+                    options.duration = Integer.parseInt(pair[1]);
+                    break;
+                case "messageSize":
+                    options.messageSize = Integer.parseInt(pair[1]);
+                    break;
+                case "connectConcurrency":
+                    options.connectConcurrency = Integer.parseInt(pair[1]);
+                    break;
+                case "senderThreads":
+                    options.senderThreads = Integer.parseInt(pair[1]);
+                    break;
+                case "compression":
+                    options.compression = Boolean.parseBoolean(pair[1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException(String.format("Unknown option '%s'.", pair[0]));
+            }
+        }
+
+        return options;
+    }
+}
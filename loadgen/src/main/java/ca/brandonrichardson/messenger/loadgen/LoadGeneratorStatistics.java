@@ -0,0 +1,94 @@
+package ca.brandonrichardson.messenger.loadgen;
+
+import ca.brandonrichardson.messenger.common.metrics.Histogram;
+import ca.brandonrichardson.messenger.common.metrics.HistogramSnapshot;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LoadGeneratorStatistics {
+
+    private final Histogram latency;
+
+    private final LongAdder connected, failed, sent, delivered;
+
+    private long lastSent, lastDelivered;
+
+    public LoadGeneratorStatistics() {
+        this.latency = new Histogram();
+        this.connected = new LongAdder();
+        this.failed = new LongAdder();
+        this.sent = new LongAdder();
+        this.delivered = new LongAdder();
+    }
+
+    public void recordConnected() {
+        this.connected.increment();
+    }
+
+    public void recordFailure() {
+        this.failed.increment();
+    }
+
+    public void recordSent() {
+        this.sent.increment();
+    }
+
+    public void recordDelivered(final long receivedAt, final String message) {
+        int separator = message.indexOf(' ');
+        if(separator <= 0) {
+            return;
+        }
+
+        long sentAt;
+        try {
+            sentAt = Long.parseLong(message.substring(0, separator));
+        } catch (NumberFormatException e) {
+            return;
+        }
+
+        this.delivered.increment();
+        this.latency.record(receivedAt - sentAt);
+    }
+
+    /**
+     * Print throughput since the previous report, alongside latency percentiles accumulated since the start of the run.
+     */
+    public synchronized void report(final long elapsedSeconds) {
+        long totalSent = this.sent.sum(), totalDelivered = this.delivered.sum();
+
+        System.out.printf("[%4ds] sessions=%d failed=%d sent/s=%d delivered/s=%d %s%n",
+                elapsedSeconds,
+                this.connected.sum(),
+                this.failed.sum(),
+                totalSent - this.lastSent,
+                totalDelivered - this.lastDelivered,
+                this.formatLatency());
+
+        this.lastSent = totalSent;
+        this.lastDelivered = totalDelivered;
+    }
+
+    public void summarize(final long elapsedSeconds) {
+        long seconds = Math.max(1, elapsedSeconds);
+
+        System.out.println();
+        System.out.printf("Sessions connected:  %d (%d failed)%n", this.connected.sum(), this.failed.sum());
+        System.out.printf("Messages sent:       %d (%d/s)%n", this.sent.sum(), this.sent.sum() / seconds);
+        System.out.printf("Messages delivered:  %d (%d/s)%n", this.delivered.sum(), this.delivered.sum() / seconds);
+        System.out.printf("Delivery latency:    %s mean=%.3fms%n", this.formatLatency(), this.latency.getMean() / TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    private String formatLatency() {
+        HistogramSnapshot snapshot = this.latency.snapshot();
+        return String.format("p50=%.3fms p99=%.3fms p999=%.3fms max=%.3fms",
+                LoadGeneratorStatistics.toMillis(snapshot.getP50()),
+                LoadGeneratorStatistics.toMillis(snapshot.getP99()),
+                LoadGeneratorStatistics.toMillis(snapshot.getP999()),
+                LoadGeneratorStatistics.toMillis(snapshot.getMax()));
+    }
+
+    private static double toMillis(final long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,160 @@
+package ca.brandonrichardson.messenger.loadgen;
+
+import ca.brandonrichardson.messenger.common.dto.Authentication;
+import ca.brandonrichardson.messenger.common.dto.Message;
+import ca.brandonrichardson.messenger.common.dto.TransportEntity;
+import ca.brandonrichardson.messenger.common.dto.builder.TransportEntityBuilder;
+import ca.brandonrichardson.messenger.common.wire.CodecType;
+import ca.brandonrichardson.messenger.common.wire.EntityCodec;
+import ca.brandonrichardson.messenger.common.wire.FrameDeflater;
+import ca.brandonrichardson.messenger.common.wire.FrameInflater;
+import ca.brandonrichardson.messenger.common.wire.Frames;
+import ca.brandonrichardson.messenger.common.wire.Handshake;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+
+/**
+ * A single headless client session. Messages sent carry their send time as a System.nanoTime() prefix, so that every
+ * session in the same JVM can measure the end-to-end delivery latency of the messages it receives.
+ */
+public class SimulatedSession implements Runnable {
+
+    private static final long READER_STACK_SIZE = 256 * 1024;
+
+    private static final int AUTHENTICATION_TIMEOUT = 10000;
+
+    private final String username;
+
+    private final LoadGeneratorStatistics statistics;
+
+    private final boolean compression;
+
+    private final FrameInflater inflater;
+
+    private FrameDeflater deflater;
+
+    private Socket socket;
+
+    private DataInputStream messageIn;
+
+    private DataOutputStream messageOut;
+
+    private EntityCodec codec;
+
+    private String sessionKey;
+
+    private volatile boolean running;
+
+    public SimulatedSession(final String username, final LoadGeneratorStatistics statistics, final boolean compression) {
+        this.username = username;
+        this.statistics = statistics;
+        this.compression = compression;
+        this.inflater = new FrameInflater();
+        this.running = false;
+    }
+
+    public void connect(final String host, final int port) throws IOException {
+        this.socket = new Socket(host, port);
+        this.socket.setTcpNoDelay(true);
+        this.messageOut = new DataOutputStream(new BufferedOutputStream(this.socket.getOutputStream()));
+        this.messageIn = new DataInputStream(new BufferedInputStream(this.socket.getInputStream()));
+
+        Handshake.offer(this.messageOut, CodecType.BINARY);
+        this.messageOut.flush();
+        this.codec = Handshake.awaitSelection(this.messageIn).getCodec();
+
+        Authentication auth = TransportEntityBuilder.auth()
+                .setUsername(this.username)
+                .setCompression(this.compression)
+                .build();
+
+        Frames.write(this.messageOut, this.codec.encode(auth));
+        this.messageOut.flush();
+
+        //messages broadcast before the reply are skipped; a server that never replies times the read out
+        long deadline = System.currentTimeMillis() + AUTHENTICATION_TIMEOUT;
+        this.socket.setSoTimeout(AUTHENTICATION_TIMEOUT);
+        TransportEntity reply;
+        do {
+            if(System.currentTimeMillis() > deadline) {
+                throw new SocketTimeoutException("Timed out waiting for authentication reply from server.");
+            }
+
+            reply = this.codec.decode(this.inflater.read(this.messageIn));
+        } while(!(reply instanceof Authentication));
+        this.socket.setSoTimeout(0);
+
+        this.sessionKey = reply.getSessionKey();
+        if(((Authentication) reply).isCompression()) {
+            this.deflater = new FrameDeflater(FrameDeflater.DEFAULT_THRESHOLD);
+        }
+
+        this.running = true;
+
+        Thread reader = new Thread(null, this, "reader-" + this.username, READER_STACK_SIZE);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    public synchronized void send(final String padding) {
+        if(!this.running) {
+            return;
+        }
+
+        Message message = TransportEntityBuilder.message()
+                .setUsername(this.username)
+                .setSessionKey(this.sessionKey)
+                .setMessage(System.nanoTime() + " " + padding)
+                .build();
+
+        try {
+            ByteBuffer frame = this.codec.encode(message);
+            ByteBuffer compressed = this.deflater != null ? this.deflater.deflate(frame) : null;
+            Frames.write(this.messageOut, compressed != null ? compressed : frame);
+            this.messageOut.flush();
+            this.statistics.recordSent();
+        } catch (IOException e) {
+            this.fail();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while(this.running) {
+                TransportEntity entity = this.codec.decode(this.inflater.read(this.messageIn));
+                if(entity instanceof Message) {
+                    this.statistics.recordDelivered(System.nanoTime(), ((Message) entity).getMessage());
+                }
+            }
+        } catch (IOException e) {
+            if(this.running) {
+                this.fail();
+            }
+        }
+    }
+
+    public void close() {
+        this.running = false;
+        try {
+            this.socket.close();
+        } catch (IOException e) {
+            //closing anyway
+        }
+    }
+
+    private void fail() {
+        if(this.running) {
+            this.statistics.recordFailure();
+        }
+
+        this.close();
+    }
+}
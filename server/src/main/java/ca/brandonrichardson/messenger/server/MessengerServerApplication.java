@@ -1,11 +1,51 @@
 package ca.brandonrichardson.messenger.server;
 
 import ca.brandonrichardson.messenger.server.core.MessengerServer;
+import ca.brandonrichardson.messenger.server.core.nio.NioMessengerServer;
+import ca.brandonrichardson.messenger.server.infra.RuntimeConstants;
+import ca.brandonrichardson.messenger.server.infra.ServerMode;
+import ca.brandonrichardson.messenger.server.logging.EventLog;
+import ca.brandonrichardson.messenger.server.metrics.ServerMetrics;
+import ca.brandonrichardson.messenger.server.store.MessageLog;
+import ca.brandonrichardson.messenger.server.svc.HandlerExecutors;
+import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
+@Slf4j
 public class MessengerServerApplication {
 
     public static void main(String[] args) {
-        MessengerServer server = new MessengerServer();
-        server.start();
+        if(args.length > 0) {
+            RuntimeConstants.serverMode = ServerMode.valueOf(args[0].toUpperCase());
+        }
+
+        ServerMetrics.getInstance().start();
+        EventLog.getInstance().start();
+
+        try {
+            MessageLog.getInstance().start();
+        } catch (IOException e) {
+            log.error("Unable to open message log in {}.", RuntimeConstants.logDirectory, e);
+            System.exit(1);
+        }
+
+        switch(RuntimeConstants.serverMode) {
+            case NIO:
+                new NioMessengerServer().start();
+                break;
+            case VIRTUAL_THREAD:
+                Executor executor = HandlerExecutors.virtualThreads().orElseGet(() -> {
+                    log.warn("Virtual threads are unavailable in this runtime; falling back to thread-per-connection.");
+                    return HandlerExecutors.threadPerConnection();
+                });
+
+                new MessengerServer(executor).start();
+                break;
+            case THREAD_PER_CONNECTION:
+                new MessengerServer().start();
+                break;
+        }
     }
 }
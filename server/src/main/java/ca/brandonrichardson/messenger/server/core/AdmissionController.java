@@ -0,0 +1,235 @@
+package ca.brandonrichardson.messenger.server.core;
+
+import ca.brandonrichardson.messenger.server.infra.RuntimeConstants;
+import ca.brandonrichardson.messenger.server.logging.EventLog;
+import ca.brandonrichardson.messenger.server.logging.LogEvent;
+import ca.brandonrichardson.messenger.server.metrics.ServerMetrics;
+import ca.brandonrichardson.messenger.server.svc.ConnectionHandler;
+import ca.brandonrichardson.messenger.server.time.CachedClock;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides whether each accepted connection is taken on, before any work is done for it. Connections are always
+ * refused beyond the hard limit of {@code maxPoolSize}, or while {@code maxPendingHandshakes} connections have yet to
+ * authenticate; between {@code softPoolSize} and the hard limit they are also shed while the server is overloaded,
+ * that is, while the smoothed time taken to handle a request or the mean outbound backlog of its connections is over
+ * its threshold. A refused connection is reset straight away, from the accepting thread.
+ *
+ * Connections that do not authenticate within {@code handshakeTimeout} milliseconds are closed, so that they cannot
+ * hold places in the pending handshake queue.
+ */
+@Slf4j
+public class AdmissionController {
+
+    private static final long SAMPLE_INTERVAL = 100;
+
+    private static final double SMOOTHING = 0.25;
+
+    private static final long ACCEPT_BACKOFF = 100;
+
+    private final Map<Connection, Long> pending;
+
+    private final AtomicInteger pendingCount;
+
+    private final LongAdder latencyTotal, latencySamples;
+
+    private volatile long latency;
+
+    private volatile double queueDepth;
+
+    private final ScheduledExecutorService executor;
+
+    private AdmissionController() {
+        this.pending = new ConcurrentHashMap<>();
+        this.pendingCount = new AtomicInteger();
+        this.latencyTotal = new LongAdder();
+        this.latencySamples = new LongAdder();
+        this.latency = 0;
+        this.queueDepth = 0;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "admission-control");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.executor.scheduleAtFixedRate(this::sample, SAMPLE_INTERVAL, SAMPLE_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Admit a newly accepted socket, acquiring a pooled connection for it.
+     *
+     * @return the connection, or null if the socket was refused and has been closed.
+     */
+    public Connection admit(final Socket socket) {
+        ConnectionPool pool = ConnectionPool.getInstance();
+        if(pool.getActiveCount() >= RuntimeConstants.softPoolSize && this.isOverloaded()) {
+            ServerMetrics.getInstance().recordShedConnection();
+            this.reject(socket, "server overloaded");
+            return null;
+        }
+
+        int count;
+        do {
+            count = this.pendingCount.get();
+            if(RuntimeConstants.maxPendingHandshakes > 0 && count >= RuntimeConstants.maxPendingHandshakes) {
+                this.reject(socket, "too many pending handshakes");
+                return null;
+            }
+        } while(!this.pendingCount.compareAndSet(count, count + 1));
+
+        Connection connection = pool.tryAcquireConnection();
+        if(connection == null) {
+            this.pendingCount.decrementAndGet();
+            this.reject(socket, "connection pool full");
+            return null;
+        }
+
+        this.pending.put(connection, CachedClock.currentTimeMillis() + RuntimeConstants.handshakeTimeout);
+        return connection;
+    }
+
+    /**
+     * Free the connection's place in the pending handshake queue, once it has authenticated or been released.
+     */
+    public void complete(final Connection connection) {
+        if(this.pending.remove(connection) != null) {
+            this.pendingCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Give up on an admitted connection that could not be set up, closing its socket and returning its places in the
+     * pool and the pending handshake queue.
+     */
+    public void abandon(final Connection connection, final Socket socket, final IOException cause) {
+        EventLog.getInstance().record(LogEvent.CONNECTION_FAILED, socket.getInetAddress().getHostAddress(), cause.getMessage());
+
+        try {
+            socket.close();
+        } catch (IOException e) {
+            log.debug("Unable to close abandoned connection cleanly.", e);
+        }
+
+        ConnectionHandler.release(connection);
+    }
+
+    /**
+     * Pause the accepting thread after accept() fails, which under a connection flood usually means the process is
+     * out of file descriptors; they are given a moment to be freed rather than the failure being retried at once.
+     *
+     * @return false if the thread was interrupted.
+     */
+    public boolean backOff(final IOException cause) {
+        EventLog.getInstance().record(LogEvent.ACCEPT_FAILED, cause.getMessage());
+
+        try {
+            Thread.sleep(ACCEPT_BACKOFF);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        return true;
+    }
+
+    public void recordLatency(final long nanos) {
+        this.latencyTotal.add(nanos);
+        this.latencySamples.increment();
+    }
+
+    public boolean isOverloaded() {
+        return this.latency > TimeUnit.MILLISECONDS.toNanos(RuntimeConstants.sheddingLatency)
+                || this.queueDepth > RuntimeConstants.sheddingQueueDepth;
+    }
+
+    public int getPendingHandshakes() {
+        return this.pendingCount.get();
+    }
+
+    /**
+     * The smoothed time taken to handle a request, in nanoseconds.
+     */
+    public long getLatency() {
+        return this.latency;
+    }
+
+    /**
+     * The mean number of frames waiting to be written to each connection.
+     */
+    public double getQueueDepth() {
+        return this.queueDepth;
+    }
+
+    private void reject(final Socket socket, final String reason) {
+        ServerMetrics.getInstance().recordRejectedConnection();
+        EventLog.getInstance().record(LogEvent.CONNECTION_REJECTED, socket.getInetAddress().getHostAddress(), reason);
+
+        //reset rather than close gracefully, so that a refused connection holds nothing on the server
+        try {
+            socket.setSoLinger(true, 0);
+            socket.close();
+        } catch (IOException e) {
+            log.debug("Unable to close refused connection cleanly.", e);
+        }
+    }
+
+    /**
+     * Fold the requests handled since the last sample into the smoothed latency, which decays while no requests are
+     * handled, measure the outbound backlog, and close connections whose handshakes have expired.
+     */
+    private void sample() {
+        long samples = this.latencySamples.sumThenReset();
+        long total = this.latencyTotal.sumThenReset();
+        long current = this.latency;
+        this.latency = samples > 0 ? current + (long) ((total / samples - current) * SMOOTHING) : current / 2;
+
+        long backlog = 0;
+        int connections = 0;
+        for(Connection connection : ConnectionPool.getInstance().getActiveConnections()) {
+            backlog += connection.getBacklog();
+            connections++;
+        }
+        this.queueDepth = connections > 0 ? (double) backlog / connections : 0;
+
+        if(RuntimeConstants.handshakeTimeout > 0) {
+            long now = CachedClock.currentTimeMillis();
+            this.pending.forEach((connection, deadline) -> {
+                if(deadline <= now && this.pending.remove(connection, deadline)) {
+                    this.pendingCount.decrementAndGet();
+                    this.expire(connection);
+                }
+            });
+        }
+    }
+
+    private void expire(final Connection connection) {
+        Socket socket = connection.getSocket();
+        if(socket != null) {
+            EventLog.getInstance().record(LogEvent.HANDSHAKE_EXPIRED, socket.getInetAddress().getHostAddress());
+        }
+
+        try {
+            connection.close();
+        } catch (IOException e) {
+            log.debug("Unable to close expired connection cleanly.", e);
+        }
+    }
+
+    public static AdmissionController getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    private static class InstanceHolder {
+        private static final AdmissionController INSTANCE = new AdmissionController();
+    }
+}
@@ -0,0 +1,66 @@
+package ca.brandonrichardson.messenger.server.core;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of channel subscribers, so that a message posted to a channel is only routed to its members. Channels are
+ * created on first join and removed once their last member leaves.
+ */
+@Slf4j
+public class ChannelRegistry {
+
+    private final Map<String, Set<Connection>> channels;
+
+    private ChannelRegistry() {
+        this.channels = new ConcurrentHashMap<>();
+    }
+
+    public void subscribe(final String channel, final Connection connection) {
+        this.channels.compute(channel, (name, members) -> {
+            Set<Connection> subscribers = members != null ? members : ConcurrentHashMap.newKeySet();
+            subscribers.add(connection);
+            return subscribers;
+        });
+
+        connection.getChannels().add(channel);
+        log.debug("Subscribed {} to channel {}.", connection.getSession().getUsername(), channel);
+    }
+
+    public void unsubscribe(final String channel, final Connection connection) {
+        this.channels.computeIfPresent(channel, (name, members) -> {
+            members.remove(connection);
+            return members.isEmpty() ? null : members;
+        });
+
+        connection.getChannels().remove(channel);
+    }
+
+    public void unsubscribeAll(final Connection connection) {
+        for(String channel : connection.getChannels()) {
+            this.unsubscribe(channel, connection);
+        }
+    }
+
+    public boolean isSubscribed(final String channel, final Connection connection) {
+        return connection.getChannels().contains(channel);
+    }
+
+    public Collection<Connection> getSubscribers(final String channel) {
+        Set<Connection> members = this.channels.get(channel);
+        return members != null ? members : Collections.emptySet();
+    }
+
+    public static ChannelRegistry getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    private static class InstanceHolder {
+        private static final ChannelRegistry INSTANCE = new ChannelRegistry();
+    }
+}
@@ -1,29 +1,150 @@
 package ca.brandonrichardson.messenger.server.core;
 
+import ca.brandonrichardson.messenger.common.dto.TransportEntity;
+import ca.brandonrichardson.messenger.common.wire.EncodedEntity;
+import ca.brandonrichardson.messenger.common.wire.EntityCodec;
 import ca.brandonrichardson.messenger.server.session.SessionPrototype;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
 import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Getter
 @Setter
 public class Connection {
 
+    private static final long BROADCASTS_CLOSED = Long.MAX_VALUE;
+
+    private static final long BROADCASTS_HELD = -1;
+
     private Socket socket;
 
-    private ObjectInputStream inputStream;
+    private DataInputStream inputStream;
+
+    private volatile ConnectionTransport transport;
+
+    private volatile EntityCodec codec;
+
+    private volatile SessionPrototype session;
+
+    private final Set<String> channels = ConcurrentHashMap.newKeySet();
+
+    private int unauthenticatedRequests;
+
+    private final Object broadcastLock = new Object();
+
+    @Setter(AccessLevel.NONE)
+    private volatile long broadcastHorizon = BROADCASTS_CLOSED;
+
+    public void send(final TransportEntity entity) throws IOException {
+        EntityCodec codec = this.codec;
+        this.write(codec != null ? codec.encode(entity) : null);
+    }
+
+    public void send(final EncodedEntity entity) throws IOException {
+        EntityCodec codec = this.codec;
+        this.write(codec != null ? entity.frame(codec) : null);
+    }
+
+    private void write(final ByteBuffer frame) throws IOException {
+        ConnectionTransport transport = this.transport;
+        if(transport == null || frame == null) {
+            throw new SocketException("Connection is not established.");
+        }
+
+        transport.write(frame);
+    }
+
+    public void enableCompression(final int threshold) {
+        ConnectionTransport transport = this.transport;
+        if(transport != null) {
+            transport.enableCompression(threshold);
+        }
+    }
 
-    private ObjectOutputStream outputStream;
+    /**
+     * Count a request received before the connection authenticated. Only the connection's reader calls this.
+     *
+     * @return the number of such requests so far.
+     */
+    public int recordUnauthenticatedRequest() {
+        return ++this.unauthenticatedRequests;
+    }
 
-    private SessionPrototype session;
+    /**
+     * Hold back broadcasts fanned out to this connection until {@link #openBroadcasts} decides whether they are to be
+     * replayed or delivered live. Called before the session key is published.
+     */
+    public void holdBroadcasts() {
+        this.broadcastHorizon = BROADCASTS_HELD;
+    }
+
+    /**
+     * Start delivering broadcasts live from the history sequence number returned by the replay, which sends those
+     * before it. Broadcasts fanned out in the meantime wait for the replay, so that each is sent once, and in order.
+     */
+    public void openBroadcasts(final BroadcastReplay replay) throws IOException {
+        synchronized(this.broadcastLock) {
+            this.broadcastHorizon = replay.replay();
+        }
+    }
+
+    /**
+     * @return true if the broadcast with the given history sequence number is to be delivered live to this connection.
+     */
+    public boolean acceptsBroadcast(final long sequence) {
+        long horizon = this.broadcastHorizon;
+        if(horizon == BROADCASTS_HELD) {
+            synchronized(this.broadcastLock) {
+                horizon = this.broadcastHorizon;
+            }
+        }
+
+        return horizon != BROADCASTS_HELD && sequence >= horizon;
+    }
+
+    public int getBacklog() {
+        ConnectionTransport transport = this.transport;
+        return transport != null ? transport.getBacklog() : 0;
+    }
+
+    public long getLag() {
+        ConnectionTransport transport = this.transport;
+        return transport != null ? transport.getLag() : 0;
+    }
+
+    public void close() throws IOException {
+        if(this.transport != null) {
+            this.transport.close();
+        }
+    }
 
     public void reset() {
         this.socket = null;
         this.inputStream = null;
-        this.outputStream = null;
+        this.transport = null;
+        this.codec = null;
         this.session = null;
+        this.unauthenticatedRequests = 0;
+        this.broadcastHorizon = BROADCASTS_CLOSED;
+        this.channels.clear();
+    }
+
+    @FunctionalInterface
+    public interface BroadcastReplay {
+
+        /**
+         * Send the broadcasts that are to be replayed.
+         *
+         * @return the history sequence number of the first broadcast to be delivered live.
+         */
+        long replay() throws IOException;
     }
  }
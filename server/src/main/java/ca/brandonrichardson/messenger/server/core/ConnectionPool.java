@@ -1,57 +1,93 @@
 package ca.brandonrichardson.messenger.server.core;
 
+import ca.brandonrichardson.messenger.server.infra.RuntimeConstants;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 public class ConnectionPool {
 
-    private Map<Connection, Long> freeConnections, usedConnections;
+    private final Queue<Connection> freeConnections;
 
-    private int maxPoolSize;
+    private final Map<Connection, Long> usedConnections;
 
-    private ConnectionPool() {
-        this.maxPoolSize = 10;
-        log.debug("Initializing connection pool with default size {}.", this.maxPoolSize);
+    private final AtomicInteger usedCount, freeCount;
+
+    private final AtomicLong version;
+
+    private volatile Snapshot snapshot;
 
-        this.freeConnections = new HashMap<>(this.maxPoolSize);
-        this.usedConnections = new HashMap<>(this.maxPoolSize);
+    private volatile int maxPoolSize;
+
+    private ConnectionPool() {
+        this.maxPoolSize = RuntimeConstants.maxPoolSize;
+        log.debug("Initializing connection pool with size {}.", this.maxPoolSize);
+
+        this.freeConnections = new ConcurrentLinkedQueue<>();
+        this.usedConnections = new ConcurrentHashMap<>(Math.min(this.maxPoolSize, 1024));
+        this.usedCount = new AtomicInteger(0);
+        this.freeCount = new AtomicInteger(0);
+        this.version = new AtomicLong(0);
+        this.snapshot = new Snapshot(0, List.of());
     }
 
-    public synchronized Connection acquireConnection() {
-        if(this.isFull()) {
+    public Connection acquireConnection() {
+        Connection connection = this.tryAcquireConnection();
+        if(connection == null) {
             throw new NoSuchElementException("Cannot acquire connection from pool; no available connections.");
         }
 
-        if(this.usedConnections.size() < this.maxPoolSize && this.freeConnections.isEmpty()) {
-            log.debug("No available connections in connection pool, but still below max pool size. Instantiating new connection.");
-            Connection newConnection = new Connection();
-            this.usedConnections.put(newConnection, System.currentTimeMillis());
+        return connection;
+    }
 
-            return newConnection;
+    /**
+     * Acquire a connection, unless the pool is full.
+     *
+     * @return the connection, or null if there are no available connections.
+     */
+    public Connection tryAcquireConnection() {
+        int used;
+        do {
+            used = this.usedCount.get();
+            if(used >= this.maxPoolSize) {
+                return null;
+            }
+        } while(!this.usedCount.compareAndSet(used, used + 1));
+
+        Connection connection = this.freeConnections.poll();
+        if(connection == null) {
+            log.debug("No available connections in connection pool, but still below max pool size. Instantiating new connection.");
+            connection = new Connection();
+        } else {
+            log.debug("Acquiring connection from connection pool.");
+            this.freeCount.decrementAndGet();
         }
 
-        log.debug("Acquiring connection from connection pool.");
-        Map.Entry<Connection, Long> entry = this.freeConnections.entrySet().iterator().next();
-        Connection connection = entry.getKey();
-        this.freeConnections.remove(connection);
         this.usedConnections.put(connection, System.currentTimeMillis());
+        this.version.incrementAndGet();
 
         return connection;
     }
 
-    public synchronized void releaseConnection(final Connection connection) {
-        if(!this.usedConnections.containsKey(connection)) {
+    public void releaseConnection(final Connection connection) {
+        if(this.usedConnections.remove(connection) == null) {
             throw new IllegalArgumentException("Connection does not exist in used connection pool.");
         }
 
         log.debug("Releasing connection to pool.");
-        this.usedConnections.remove(connection);
-        this.freeConnections.put(connection, System.currentTimeMillis());
+        this.version.incrementAndGet();
+        this.usedCount.decrementAndGet();
+        this.freeConnections.offer(connection);
+        this.freeCount.incrementAndGet();
     }
 
     public void setMaxPoolSize(final int poolSize) {
@@ -63,8 +99,29 @@ public class ConnectionPool {
         this.maxPoolSize = poolSize;
     }
 
-    public synchronized Collection<Connection> getActiveConnections() {
-        return this.usedConnections.keySet();
+    /**
+     * Returns an immutable snapshot of the connections in use. The snapshot is only rebuilt when a connection has been
+     * acquired or released since it was last taken, so repeated broadcasts share the same copy.
+     */
+    public Collection<Connection> getActiveConnections() {
+        Snapshot current = this.snapshot;
+        long currentVersion = this.version.get();
+        if(current.version == currentVersion) {
+            return current.connections;
+        }
+
+        List<Connection> connections = List.copyOf(this.usedConnections.keySet());
+        this.snapshot = new Snapshot(currentVersion, connections);
+
+        return connections;
+    }
+
+    public int getActiveCount() {
+        return this.usedCount.get();
+    }
+
+    public int getFreeCount() {
+        return this.freeCount.get();
     }
 
     public int getMaxPoolSize() {
@@ -72,13 +129,25 @@ public class ConnectionPool {
     }
 
     public boolean isFull() {
-        return this.usedConnections.size() >= this.maxPoolSize;
+        return this.usedCount.get() >= this.maxPoolSize;
     }
 
     public static ConnectionPool getInstance() {
         return InstanceHolder.INSTANCE;
     }
 
+    private static class Snapshot {
+
+        private final long version;
+
+        private final List<Connection> connections;
+
+        private Snapshot(final long version, final List<Connection> connections) {
+            this.version = version;
+            this.connections = connections;
+        }
+    }
+
     private static class InstanceHolder {
         private static final ConnectionPool INSTANCE = new ConnectionPool();
     }
@@ -0,0 +1,31 @@
+package ca.brandonrichardson.messenger.server.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public interface ConnectionTransport {
+
+    void write(final ByteBuffer frame) throws IOException;
+
+    void close() throws IOException;
+
+    /**
+     * Compress outbound frames, and batches of frames, of at least threshold bytes from here on.
+     */
+    void enableCompression(final int threshold);
+
+    /**
+     * @return the number of frames queued on this transport that have not yet been written.
+     */
+    int getBacklog();
+
+    /**
+     * @return the milliseconds since this transport last made progress on its backlog, or zero if it has none.
+     */
+    long getLag();
+
+    /**
+     * @return the number of frames dropped by the slow consumer policy.
+     */
+    long getDroppedFrames();
+}
@@ -3,17 +3,29 @@ package ca.brandonrichardson.messenger.server.core;
 import ca.brandonrichardson.messenger.server.infra.RuntimeConstants;
 import ca.brandonrichardson.messenger.server.session.SessionPrototype;
 import ca.brandonrichardson.messenger.server.svc.ConnectionHandler;
+import ca.brandonrichardson.messenger.server.svc.HandlerExecutors;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.util.concurrent.Executor;
 
 @Slf4j
 public class MessengerServer {
 
+    private final Executor handlerExecutor;
+
+    public MessengerServer() {
+        this(HandlerExecutors.threadPerConnection());
+    }
+
+    public MessengerServer(final Executor handlerExecutor) {
+        this.handlerExecutor = handlerExecutor;
+    }
+
     public void start() {
         log.info("Starting server on port {}.", RuntimeConstants.portNumber);
 
@@ -21,24 +33,40 @@ public class MessengerServer {
         try(ServerSocket serverSocket = new ServerSocket(RuntimeConstants.portNumber)) {
             log.info("Server started successfully.");
 
-            while(true) {
-                Socket socket = serverSocket.accept();
-                log.info("Connection received from {}.", socket.getInetAddress().getHostAddress());
+            while(!serverSocket.isClosed()) {
+                Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                } catch (IOException e) {
+                    if(!AdmissionController.getInstance().backOff(e)) {
+                        break;
+                    }
+
+                    continue;
+                }
+
+                Connection connection = AdmissionController.getInstance().admit(socket);
+                if(connection == null) {
+                    continue;
+                }
 
-                if(ConnectionPool.getInstance().isFull()) {
-                    socket.close();
-                    log.warn("Connection dropped due to a full connection pool.");
+                StreamTransport transport;
+                try {
+                    connection.setSocket(socket);
+                    connection.setInputStream(new DataInputStream(new BufferedInputStream(socket.getInputStream())));
+                    transport = new StreamTransport(socket);
+                } catch (IOException e) {
+                    AdmissionController.getInstance().abandon(connection, socket, e);
+                    continue;
                 }
 
-                Connection connection = ConnectionPool.getInstance().acquireConnection();
-                connection.setSocket(socket);
-                connection.setInputStream(new ObjectInputStream(socket.getInputStream()));
-                connection.setOutputStream(new ObjectOutputStream(socket.getOutputStream()));
+                connection.setTransport(transport);
                 connection.setSession(emptySession.clone());
 
                 log.info("Successfully established connection to {}; initializing connection handler thread.", socket.getInetAddress().getHostAddress());
 
-                new ConnectionHandler(connection).start();
+                transport.start(this.handlerExecutor);
+                new ConnectionHandler(connection).start(this.handlerExecutor);
             }
         } catch (IOException e) {
             log.error("Unrecoverable IOException throw in MessengerServer.", e);
@@ -0,0 +1,340 @@
+package ca.brandonrichardson.messenger.server.core;
+
+import ca.brandonrichardson.messenger.common.wire.Frames;
+import ca.brandonrichardson.messenger.server.infra.RuntimeConstants;
+import ca.brandonrichardson.messenger.server.infra.SlowConsumerPolicy;
+import ca.brandonrichardson.messenger.server.metrics.ServerMetrics;
+import ca.brandonrichardson.messenger.server.time.CachedClock;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded queue of frames waiting to be written to a connection, with a single consumer. What happens to frames
+ * sent to a connection whose queue is full is decided by the configured {@link SlowConsumerPolicy}, so that a client
+ * that stops reading costs the server a bounded amount of memory and never blocks the thread sending to it.
+ *
+ * The queue also tracks how far its consumer has fallen behind: the lag is the time since the consumer last took a
+ * frame, while frames are waiting.
+ */
+@Slf4j
+public class OutboundQueue {
+
+    private final Queue<ByteBuffer> frames;
+
+    private final AtomicInteger size;
+
+    private final AtomicLong dropped;
+
+    private final SlowConsumerPolicy policy;
+
+    private volatile long progressAt;
+
+    private volatile Thread consumer;
+
+    private volatile SpillFile spill;
+
+    private volatile boolean closed;
+
+    public OutboundQueue() {
+        this.frames = new ConcurrentLinkedQueue<>();
+        this.size = new AtomicInteger(0);
+        this.dropped = new AtomicLong(0);
+        this.policy = RuntimeConstants.slowConsumerPolicy;
+        this.progressAt = CachedClock.currentTimeMillis();
+        this.closed = false;
+    }
+
+    /**
+     * Queue a frame, applying the slow consumer policy if the queue is full. Frames that are dropped are counted.
+     *
+     * @throws SlowConsumerException if the connection should be disconnected.
+     */
+    public void offer(final ByteBuffer frame) throws IOException {
+        if(this.policy == SlowConsumerPolicy.DISCONNECT && RuntimeConstants.slowConsumerLagThreshold > 0
+                && this.getLag() > RuntimeConstants.slowConsumerLagThreshold) {
+            throw new SlowConsumerException(String.format("Consumer has not made progress in %d ms.", this.getLag()));
+        }
+
+        if(this.spill != null && this.spillIfSpilling(frame)) {
+            this.signal();
+            return;
+        }
+
+        int queued = this.size.incrementAndGet();
+        if(queued > RuntimeConstants.outboundQueueCapacity) {
+            this.size.decrementAndGet();
+            this.overflow(frame);
+            return;
+        }
+
+        if(queued == 1) {
+            this.progressAt = CachedClock.currentTimeMillis();
+        }
+
+        this.frames.add(frame);
+        this.signal();
+    }
+
+    /**
+     * @return the next frame to write, or null if there is none.
+     */
+    public ByteBuffer poll() throws IOException {
+        ByteBuffer frame = this.frames.poll();
+        if(frame != null) {
+            this.size.decrementAndGet();
+            this.progressAt = CachedClock.currentTimeMillis();
+            return frame;
+        }
+
+        if(this.spill == null) {
+            return null;
+        }
+
+        synchronized(this) {
+            if(this.spill == null) {
+                return null;
+            }
+
+            frame = this.spill.read();
+            if(this.spill.isEmpty()) {
+                this.spill.delete();
+                this.spill = null;
+            }
+        }
+
+        this.progressAt = CachedClock.currentTimeMillis();
+        return frame;
+    }
+
+    /**
+     * Wait for the next frame to write.
+     *
+     * @return the next frame, or null once the queue has been closed.
+     */
+    public ByteBuffer take() throws IOException, InterruptedException {
+        this.consumer = Thread.currentThread();
+        while(!this.closed) {
+            ByteBuffer frame = this.poll();
+            if(frame != null) {
+                return frame;
+            }
+
+            LockSupport.park(this);
+            if(Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Wait up to the given number of nanoseconds for the next frame to write.
+     *
+     * @return the next frame, or null if none arrived in time or the queue has been closed.
+     */
+    public ByteBuffer poll(final long timeout) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + timeout;
+        this.consumer = Thread.currentThread();
+        while(!this.closed) {
+            ByteBuffer frame = this.poll();
+            if(frame != null) {
+                return frame;
+            }
+
+            long remaining = deadline - System.nanoTime();
+            if(remaining <= 0) {
+                return null;
+            }
+
+            LockSupport.parkNanos(this, remaining);
+            if(Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+
+        return null;
+    }
+
+    public int getBacklog() {
+        SpillFile spill = this.spill;
+        return this.size.get() + (spill != null ? spill.count : 0);
+    }
+
+    /**
+     * @return the milliseconds since the consumer last took a frame, or zero if no frames are waiting.
+     */
+    public long getLag() {
+        return this.getBacklog() > 0 ? Math.max(0, CachedClock.currentTimeMillis() - this.progressAt) : 0;
+    }
+
+    public long getDropped() {
+        return this.dropped.get();
+    }
+
+    public void close() {
+        this.closed = true;
+        this.frames.clear();
+        this.size.set(0);
+
+        synchronized(this) {
+            if(this.spill != null) {
+                this.spill.delete();
+                this.spill = null;
+            }
+        }
+
+        this.signal();
+    }
+
+    private void overflow(final ByteBuffer frame) throws IOException {
+        switch(this.policy) {
+            case DROP_OLDEST:
+                if(this.frames.poll() == null) {
+                    //the consumer emptied the queue in the meantime
+                    this.offer(frame);
+                    return;
+                }
+
+                this.frames.add(frame);
+                this.recordDropped();
+                this.signal();
+                break;
+            case DROP_NEWEST:
+                this.recordDropped();
+                break;
+            case DISCONNECT:
+                throw new SlowConsumerException("Outbound queue is full.");
+            case SPILL:
+                synchronized(this) {
+                    if(this.closed) {
+                        return;
+                    }
+
+                    if(this.spill == null) {
+                        this.spill = new SpillFile();
+                    }
+
+                    this.spill.write(frame);
+                }
+
+                ServerMetrics.getInstance().recordSpilledFrame();
+                this.signal();
+                break;
+        }
+    }
+
+    private synchronized boolean spillIfSpilling(final ByteBuffer frame) throws IOException {
+        if(this.spill == null) {
+            return false;
+        }
+
+        //once the queue has spilled, frames must go to the spill file until it is drained to keep them in order
+        this.spill.write(frame);
+        ServerMetrics.getInstance().recordSpilledFrame();
+        return true;
+    }
+
+    private void recordDropped() {
+        this.dropped.incrementAndGet();
+        ServerMetrics.getInstance().recordDroppedFrame();
+    }
+
+    private void signal() {
+        Thread consumer = this.consumer;
+        if(consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    /**
+     * Frames that overflowed the queue, appended to a temporary file and read back in order.
+     */
+    private static class SpillFile {
+
+        private final Path path;
+
+        private final FileChannel channel;
+
+        private long readPosition, writePosition;
+
+        private volatile int count;
+
+        private SpillFile() throws IOException {
+            Path directory = Paths.get(RuntimeConstants.spillDirectory);
+            Files.createDirectories(directory);
+
+            this.path = Files.createTempFile(directory, "outbound-", ".spill");
+            this.channel = FileChannel.open(this.path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+            this.readPosition = 0;
+            this.writePosition = 0;
+            this.count = 0;
+        }
+
+        private void write(final ByteBuffer frame) throws IOException {
+            if(this.writePosition - this.readPosition + frame.remaining() > RuntimeConstants.spillLimit) {
+                throw new SlowConsumerException("Outbound spill file is full.");
+            }
+
+            ByteBuffer source = frame.duplicate();
+            while(source.hasRemaining()) {
+                this.writePosition += this.channel.write(source, this.writePosition);
+            }
+
+            this.count++;
+        }
+
+        private ByteBuffer read() throws IOException {
+            ByteBuffer header = ByteBuffer.allocate(Frames.HEADER_LENGTH);
+            this.readFully(header, this.readPosition);
+
+            int length = header.getInt(0);
+            Frames.checkLength(length);
+
+            ByteBuffer frame = ByteBuffer.allocate(Frames.HEADER_LENGTH + length);
+            this.readFully(frame, this.readPosition);
+            frame.flip();
+
+            this.readPosition += frame.remaining();
+            this.count--;
+            return frame;
+        }
+
+        private void readFully(final ByteBuffer target, final long position) throws IOException {
+            long offset = position;
+            while(target.hasRemaining()) {
+                int read = this.channel.read(target, offset);
+                if(read < 0) {
+                    throw new EOFException("Unexpected end of spill file.");
+                }
+
+                offset += read;
+            }
+        }
+
+        private boolean isEmpty() {
+            return this.count == 0;
+        }
+
+        private void delete() {
+            try {
+                this.channel.close();
+            } catch (IOException e) {
+                log.warn("Unable to delete spill file {}.", this.path, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package ca.brandonrichardson.messenger.server.core;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a connection has fallen too far behind on its outbound frames to be kept open.
+ */
+public class SlowConsumerException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public SlowConsumerException(final String message) {
+        super(message);
+    }
+}
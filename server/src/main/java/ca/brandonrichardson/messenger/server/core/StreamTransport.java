@@ -0,0 +1,194 @@
+package ca.brandonrichardson.messenger.server.core;
+
+import ca.brandonrichardson.messenger.common.wire.FrameDeflater;
+import ca.brandonrichardson.messenger.common.wire.Frames;
+import ca.brandonrichardson.messenger.server.infra.RuntimeConstants;
+import ca.brandonrichardson.messenger.server.metrics.ServerMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes queued frames to a socket on a writer task of its own. Frames are coalesced into a buffer of
+ * {@code coalesceBufferSize} bytes, which is flushed when it fills, when the queue is empty, or when its oldest frame
+ * has waited {@code coalesceDelay} microseconds; with a delay, the writer lingers on an empty queue until then, in
+ * case more frames arrive.
+ *
+ * Once compression is enabled, each batch of coalesced frames that reaches the threshold is written as a single
+ * compressed frame, as is any frame too large to be coalesced.
+ */
+@Slf4j
+public class StreamTransport implements ConnectionTransport, Runnable {
+
+    private final Socket socket;
+
+    private final OutputStream outputStream;
+
+    private final OutboundQueue outbound;
+
+    private final byte[] scratch, batch;
+
+    private int batched;
+
+    private volatile FrameDeflater deflater;
+
+    private volatile boolean closed;
+
+    public StreamTransport(final Socket socket) throws IOException {
+        this.socket = socket;
+        this.outputStream = socket.getOutputStream();
+        this.outbound = new OutboundQueue();
+        this.scratch = new byte[8192];
+        this.batch = new byte[Math.max(0, RuntimeConstants.coalesceBufferSize)];
+        this.batched = 0;
+        this.closed = false;
+    }
+
+    public void start(final Executor executor) {
+        executor.execute(this);
+    }
+
+    @Override
+    public void run() {
+        try {
+            long delay = TimeUnit.MICROSECONDS.toNanos(RuntimeConstants.coalesceDelay);
+            long unflushedSince = 0;
+            int unflushed = 0;
+
+            ByteBuffer frame = this.outbound.take();
+            while(frame != null) {
+                this.append(frame);
+                if(unflushed++ == 0) {
+                    unflushedSince = System.nanoTime();
+                }
+
+                long remaining = unflushedSince + delay - System.nanoTime();
+                frame = this.outbound.poll();
+                if(frame == null && remaining > 0) {
+                    frame = this.outbound.poll(remaining);
+                }
+
+                if(frame == null || (delay > 0 && remaining <= 0)) {
+                    this.flushBatch();
+                    ServerMetrics.getInstance().recordFlush(unflushed);
+                    unflushed = 0;
+                }
+
+                if(frame == null) {
+                    frame = this.outbound.take();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (SocketException e) {
+            log.debug("Writer for {} terminating; socket closed.", this.socket.getInetAddress().getHostAddress());
+        } catch (IOException e) {
+            log.warn("Writer for {} terminating due to unexpected IOException.", this.socket.getInetAddress().getHostAddress(), e);
+        } finally {
+            FrameDeflater deflater = this.deflater;
+            if(deflater != null) {
+                deflater.end();
+            }
+
+            try {
+                this.close();
+            } catch (IOException e) {
+                log.warn("Unable to close socket cleanly.", e);
+            }
+        }
+    }
+
+    /**
+     * Copy a frame into the batch, first writing out the batch if the frame does not fit. Frames that are larger than
+     * the batch itself are written directly.
+     */
+    private void append(final ByteBuffer frame) throws IOException {
+        int length = frame.remaining();
+        if(this.batched + length > this.batch.length) {
+            this.flushBatch();
+        }
+
+        if(length >= this.batch.length) {
+            this.writeFrames(frame);
+            return;
+        }
+
+        frame.duplicate().get(this.batch, this.batched, length);
+        this.batched += length;
+    }
+
+    private void flushBatch() throws IOException {
+        if(this.batched == 0) {
+            return;
+        }
+
+        ByteBuffer frames = ByteBuffer.wrap(this.batch, 0, this.batched);
+        this.batched = 0;
+        this.writeFrames(frames);
+    }
+
+    private void writeFrames(final ByteBuffer frames) throws IOException {
+        FrameDeflater deflater = this.deflater;
+        ByteBuffer compressed = deflater != null ? deflater.deflate(frames) : null;
+        if(compressed != null) {
+            ServerMetrics.getInstance().recordCompression(frames.remaining(), compressed.remaining());
+        }
+
+        ByteBuffer written = compressed != null ? compressed : frames;
+        Frames.write(this.outputStream, written, this.scratch);
+        ServerMetrics.getInstance().recordBytesOut(written.remaining());
+    }
+
+    @Override
+    public void enableCompression(final int threshold) {
+        this.deflater = new FrameDeflater(threshold);
+    }
+
+    @Override
+    public void write(final ByteBuffer frame) throws IOException {
+        if(this.closed) {
+            throw new SocketException("Socket is closed.");
+        }
+
+        try {
+            this.outbound.offer(frame);
+        } catch (SlowConsumerException e) {
+            log.warn("Disconnecting slow consumer {}: {}", this.socket.getInetAddress().getHostAddress(), e.getMessage());
+            ServerMetrics.getInstance().recordSlowConsumerDisconnect();
+            this.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int getBacklog() {
+        return this.outbound.getBacklog();
+    }
+
+    @Override
+    public long getLag() {
+        return this.outbound.getLag();
+    }
+
+    @Override
+    public long getDroppedFrames() {
+        return this.outbound.getDropped();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(this.closed) {
+            return;
+        }
+
+        this.closed = true;
+        this.outbound.close();
+        this.socket.close();
+    }
+}
@@ -0,0 +1,61 @@
+package ca.brandonrichardson.messenger.server.core;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of authenticated connections by username, for point-to-point delivery. If a user authenticates more than
+ * once, the most recent connection is the one indexed.
+ */
+@Slf4j
+public class UserRegistry {
+
+    /**
+     * The longest username, in characters, that a user may authenticate as or be sent a direct message under.
+     */
+    public static final int MAX_USERNAME_LENGTH = 32;
+
+    private final Map<String, Connection> connections;
+
+    private UserRegistry() {
+        this.connections = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @return the connection previously indexed for the user, if any.
+     */
+    public Optional<Connection> register(final String username, final Connection connection) {
+        Connection previous = this.connections.put(username, connection);
+        if(previous != null) {
+            log.debug("User {} authenticated again; indexing newest connection.", username);
+        }
+
+        return Optional.ofNullable(previous);
+    }
+
+    public void unregister(final String username, final Connection connection) {
+        this.connections.remove(username, connection);
+    }
+
+    public Optional<Connection> lookup(final String username) {
+        return Optional.ofNullable(this.connections.get(username));
+    }
+
+    /**
+     * @return true if the username is present, not blank and at most {@link #MAX_USERNAME_LENGTH} characters long.
+     */
+    public static boolean isValidUsername(final String username) {
+        return username != null && !username.trim().isEmpty() && username.length() <= MAX_USERNAME_LENGTH;
+    }
+
+    public static UserRegistry getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    private static class InstanceHolder {
+        private static final UserRegistry INSTANCE = new UserRegistry();
+    }
+}
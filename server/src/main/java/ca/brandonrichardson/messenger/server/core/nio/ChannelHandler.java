@@ -0,0 +1,413 @@
+package ca.brandonrichardson.messenger.server.core.nio;
+
+import ca.brandonrichardson.messenger.common.dto.TransportEntity;
+import ca.brandonrichardson.messenger.common.wire.CodecType;
+import ca.brandonrichardson.messenger.common.wire.FrameDeflater;
+import ca.brandonrichardson.messenger.common.wire.FrameInflater;
+import ca.brandonrichardson.messenger.common.wire.Frames;
+import ca.brandonrichardson.messenger.common.wire.Handshake;
+import ca.brandonrichardson.messenger.server.core.Connection;
+import ca.brandonrichardson.messenger.server.core.ConnectionTransport;
+import ca.brandonrichardson.messenger.server.core.OutboundQueue;
+import ca.brandonrichardson.messenger.server.core.SlowConsumerException;
+import ca.brandonrichardson.messenger.server.infra.RuntimeConstants;
+import ca.brandonrichardson.messenger.server.metrics.ServerMetrics;
+import ca.brandonrichardson.messenger.server.svc.ConnectionHandler;
+import ca.brandonrichardson.messenger.server.svc.request.RequestChain;
+import ca.brandonrichardson.messenger.server.svc.request.RequestPipeline;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The transport of a single non-blocking connection. Frames are read and decoded on the event loop, and the requests
+ * they carry are run through the request chain on a request worker, one at a time and in order; reading is suspended
+ * while {@code MAX_PENDING_REQUESTS} requests are waiting for a worker.
+ *
+ * The connection is released on the event loop, once no worker is processing a request from it.
+ */
+@Slf4j
+public class ChannelHandler implements ConnectionTransport {
+
+    private static final int INITIAL_READ_BUFFER_SIZE = 8192;
+
+    private static final int MAX_GATHERED_FRAMES = 64;
+
+    private static final int MAX_PENDING_REQUESTS = 256;
+
+    private final Connection connection;
+
+    private final SocketChannel channel;
+
+    private final EventLoop eventLoop;
+
+    private final Executor workers;
+
+    private final RequestChain chain;
+
+    private final Queue<TransportEntity> requests;
+
+    private final AtomicInteger pendingRequests;
+
+    private final AtomicBoolean processing, readSuspended;
+
+    private final String address;
+
+    private final OutboundQueue outbound;
+
+    private final AtomicBoolean writeScheduled, closed;
+
+    private SelectionKey key;
+
+    private boolean released;
+
+    private ByteBuffer readBuffer;
+
+    private final ByteBuffer[] gathered;
+
+    private int gatheredStart, gatheredEnd;
+
+    private final FrameInflater inflater;
+
+    private volatile FrameDeflater deflater;
+
+    public ChannelHandler(final Connection connection, final SocketChannel channel, final EventLoop eventLoop, final Executor workers) {
+        this.connection = connection;
+        this.channel = channel;
+        this.eventLoop = eventLoop;
+        this.workers = workers;
+        this.requests = new ConcurrentLinkedQueue<>();
+        this.pendingRequests = new AtomicInteger();
+        this.processing = new AtomicBoolean(false);
+        this.readSuspended = new AtomicBoolean(false);
+        this.released = false;
+        this.outbound = new OutboundQueue();
+        this.gathered = new ByteBuffer[MAX_GATHERED_FRAMES];
+        this.gatheredStart = 0;
+        this.gatheredEnd = 0;
+        this.inflater = new FrameInflater();
+        this.writeScheduled = new AtomicBoolean(false);
+        this.closed = new AtomicBoolean(false);
+        this.readBuffer = ByteBuffer.allocate(INITIAL_READ_BUFFER_SIZE);
+        this.address = connection.getSocket().getInetAddress().getHostAddress();
+        this.chain = RequestPipeline.getInstance();
+    }
+
+    void register(final Selector selector) {
+        if(this.closed.get()) {
+            return;
+        }
+
+        try {
+            this.key = this.channel.register(selector, SelectionKey.OP_READ, this);
+        } catch (ClosedChannelException e) {
+            this.closeQuietly();
+            return;
+        }
+
+        if(this.outbound.getBacklog() > 0) {
+            this.flush();
+        }
+    }
+
+    void read() {
+        try {
+            int read = this.channel.read(this.readBuffer);
+            if(read < 0) {
+                log.info("Client {} terminated session.", this.address);
+                this.close();
+                return;
+            }
+
+            ServerMetrics.getInstance().recordBytesIn(read);
+
+            this.readBuffer.flip();
+            if(this.connection.getCodec() == null && !this.negotiate()) {
+                this.readBuffer.compact();
+                return;
+            }
+
+            while(this.readBuffer.remaining() >= Frames.HEADER_LENGTH && !this.closed.get()) {
+                int header = this.readBuffer.getInt(this.readBuffer.position());
+                int length = Frames.lengthOf(header);
+                Frames.checkLength(length);
+
+                if(this.readBuffer.remaining() < Frames.HEADER_LENGTH + length) {
+                    if(this.readBuffer.capacity() < Frames.HEADER_LENGTH + length) {
+                        ByteBuffer expanded = ByteBuffer.allocate(Frames.HEADER_LENGTH + length);
+                        expanded.put(this.readBuffer);
+                        expanded.flip();
+                        this.readBuffer = expanded;
+                    }
+
+                    break;
+                }
+
+                int frameEnd = this.readBuffer.position() + Frames.HEADER_LENGTH + length;
+                ByteBuffer payload = this.readBuffer.duplicate();
+                payload.position(this.readBuffer.position() + Frames.HEADER_LENGTH).limit(frameEnd);
+                this.readBuffer.position(frameEnd);
+
+                if(!Frames.isCompressed(header)) {
+                    this.process(payload);
+                    continue;
+                }
+
+                ByteBuffer frames = this.inflater.inflate(payload);
+                while(frames.hasRemaining() && !this.closed.get()) {
+                    this.process(FrameInflater.nextPayload(frames));
+                }
+            }
+
+            this.readBuffer.compact();
+        } catch (IOException e) {
+            log.error("Closing channel due to unexpected IOException.", e);
+            this.closeQuietly();
+        } catch (RuntimeException e) {
+            log.error("Closing channel due to unexpected exception.", e);
+            this.closeQuietly();
+        }
+    }
+
+    private void process(final ByteBuffer payload) throws IOException {
+        this.requests.add(this.connection.getCodec().decode(payload));
+        if(this.pendingRequests.incrementAndGet() >= MAX_PENDING_REQUESTS && this.readSuspended.compareAndSet(false, true)) {
+            this.key.interestOps(this.key.interestOps() & ~SelectionKey.OP_READ);
+
+            //the worker may have caught up before reading was suspended, in which case it will not resume it
+            if(this.pendingRequests.get() <= MAX_PENDING_REQUESTS / 2 && this.readSuspended.compareAndSet(true, false)) {
+                this.key.interestOps(this.key.interestOps() | SelectionKey.OP_READ);
+            }
+        }
+
+        if(this.processing.compareAndSet(false, true)) {
+            this.workers.execute(this::work);
+        }
+    }
+
+    /**
+     * Run the pending requests through the request chain, on a request worker. Only one worker processes a handler's
+     * requests at a time.
+     */
+    private void work() {
+        TransportEntity entity;
+        while(!this.closed.get() && (entity = this.requests.poll()) != null) {
+            try {
+                this.chain.process(this.connection, entity);
+            } catch (IOException e) {
+                log.error("Closing channel due to unexpected IOException.", e);
+                this.closeQuietly();
+            } catch (NoSuchAlgorithmException e) {
+                log.error("Closing channel due to unexpected NoSuchAlgorithmException.", e);
+                this.closeQuietly();
+            } catch (RuntimeException e) {
+                log.error("Closing channel due to unexpected exception.", e);
+                this.closeQuietly();
+            }
+
+            if(this.pendingRequests.decrementAndGet() <= MAX_PENDING_REQUESTS / 2 && this.readSuspended.compareAndSet(true, false)) {
+                this.eventLoop.scheduleRead(this);
+            }
+        }
+
+        this.processing.set(false);
+        if(this.closed.get()) {
+            //the loop may have found this worker still processing when it shut the handler down
+            this.eventLoop.scheduleClose(this);
+        } else if(!this.requests.isEmpty() && this.processing.compareAndSet(false, true)) {
+            this.workers.execute(this::work);
+        }
+    }
+
+    void resumeReading() {
+        if(!this.closed.get() && this.key != null && this.key.isValid()) {
+            this.key.interestOps(this.key.interestOps() | SelectionKey.OP_READ);
+        }
+    }
+
+    private boolean negotiate() throws IOException {
+        CodecType codec = Handshake.negotiate(this.readBuffer);
+        if(codec == null) {
+            return false;
+        }
+
+        this.write(Handshake.selection(codec));
+        this.connection.setCodec(codec.getCodec());
+        log.debug("Negotiated {} codec with {}.", codec, this.address);
+
+        return true;
+    }
+
+    void flush() {
+        if(this.closed.get() || this.key == null) {
+            return;
+        }
+
+        try {
+            //frames being written are held outside the queue, so that the slow consumer policy never drops one
+            while(this.gatheredStart < this.gatheredEnd || this.gather() > 0) {
+                ServerMetrics.getInstance().recordBytesOut(this.channel.write(this.gathered, this.gatheredStart, this.gatheredEnd - this.gatheredStart));
+                while(this.gatheredStart < this.gatheredEnd && !this.gathered[this.gatheredStart].hasRemaining()) {
+                    this.gathered[this.gatheredStart++] = null;
+                }
+
+                if(this.gatheredStart < this.gatheredEnd) {
+                    this.key.interestOps(this.key.interestOps() | SelectionKey.OP_WRITE);
+                    return;
+                }
+            }
+
+            this.key.interestOps(this.key.interestOps() & ~SelectionKey.OP_WRITE);
+            this.writeScheduled.set(false);
+            if(this.outbound.getBacklog() > 0 && this.writeScheduled.compareAndSet(false, true)) {
+                this.eventLoop.scheduleWrite(this);
+            }
+        } catch (IOException e) {
+            log.warn("Unable to write to {}; closing channel.", this.address);
+            this.closeQuietly();
+        }
+    }
+
+    /**
+     * Take as many queued frames as will fit in a single gathering write of up to {@code coalesceBufferSize} bytes,
+     * and always at least one. Once compression is enabled, frames that reach the threshold between them are replaced
+     * by a single compressed frame.
+     *
+     * @return the number of frames taken.
+     */
+    private int gather() throws IOException {
+        this.gatheredStart = 0;
+        this.gatheredEnd = 0;
+
+        long bytes = 0;
+        ByteBuffer frame;
+        while(this.gatheredEnd < MAX_GATHERED_FRAMES && (this.gatheredEnd == 0 || bytes < RuntimeConstants.coalesceBufferSize)
+                && (frame = this.outbound.poll()) != null) {
+            this.gathered[this.gatheredEnd++] = frame;
+            bytes += frame.remaining();
+        }
+
+        if(this.gatheredEnd == 0) {
+            return 0;
+        }
+
+        ServerMetrics.getInstance().recordFlush(this.gatheredEnd);
+
+        FrameDeflater deflater = this.deflater;
+        ByteBuffer compressed = deflater != null ? deflater.deflate(this.gathered, 0, this.gatheredEnd) : null;
+        if(compressed != null) {
+            ServerMetrics.getInstance().recordCompression((int) bytes, compressed.remaining());
+            Arrays.fill(this.gathered, 0, this.gatheredEnd, null);
+            this.gathered[0] = compressed;
+            this.gatheredEnd = 1;
+        }
+
+        return this.gatheredEnd;
+    }
+
+    @Override
+    public void enableCompression(final int threshold) {
+        this.deflater = new FrameDeflater(threshold);
+    }
+
+    @Override
+    public void write(final ByteBuffer frame) throws IOException {
+        if(this.closed.get()) {
+            throw new ClosedChannelException();
+        }
+
+        try {
+            this.outbound.offer(frame.duplicate());
+        } catch (SlowConsumerException e) {
+            log.warn("Disconnecting slow consumer {}: {}", this.address, e.getMessage());
+            ServerMetrics.getInstance().recordSlowConsumerDisconnect();
+            this.close();
+            throw e;
+        }
+
+        if(this.writeScheduled.compareAndSet(false, true)) {
+            this.eventLoop.scheduleWrite(this);
+        }
+    }
+
+    @Override
+    public int getBacklog() {
+        return this.outbound.getBacklog();
+    }
+
+    @Override
+    public long getLag() {
+        return this.outbound.getLag();
+    }
+
+    @Override
+    public long getDroppedFrames() {
+        return this.outbound.getDropped();
+    }
+
+    /**
+     * Close the channel. The handler stops reading and writing at once, but it is only shut down on its event loop,
+     * and its connection is only released there once no worker is processing a request from it.
+     */
+    @Override
+    public void close() throws IOException {
+        if(!this.closed.compareAndSet(false, true)) {
+            return;
+        }
+
+        if(this.eventLoop.inEventLoop()) {
+            this.shutdown();
+        } else {
+            this.eventLoop.scheduleClose(this);
+        }
+    }
+
+    void shutdown() {
+        if(this.released) {
+            return;
+        }
+
+        try {
+            if(this.key != null) {
+                this.key.cancel();
+            }
+
+            this.channel.close();
+        } catch (IOException e) {
+            log.warn("Unable to close channel cleanly.", e);
+        }
+
+        //taking the worker's place for good, so that no request is processed once the connection is released
+        if(this.processing.compareAndSet(false, true)) {
+            this.released = true;
+            this.release();
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            this.close();
+        } catch (IOException e) {
+            log.warn("Unable to close channel cleanly.", e);
+        }
+    }
+
+    private void release() {
+        this.requests.clear();
+        this.outbound.close();
+        Arrays.fill(this.gathered, null);
+        ConnectionHandler.release(this.connection);
+    }
+}
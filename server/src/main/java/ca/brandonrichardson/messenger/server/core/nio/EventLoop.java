@@ -0,0 +1,137 @@
+package ca.brandonrichardson.messenger.server.core.nio;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Multiplexes the reads and writes of many channels on a single thread. Only I/O, framing and decoding are done here;
+ * decoded requests are handed to the request workers, so the loop is never held up by the request chain.
+ */
+@Slf4j
+public class EventLoop implements Runnable {
+
+    private final Selector selector;
+
+    private final Queue<ChannelHandler> pendingRegistrations;
+
+    private final Queue<ChannelHandler> pendingWrites;
+
+    private final Queue<ChannelHandler> pendingCloses;
+
+    private final Queue<ChannelHandler> pendingReads;
+
+    private volatile Thread thread;
+
+    public EventLoop() throws IOException {
+        this.selector = Selector.open();
+        this.pendingRegistrations = new ConcurrentLinkedQueue<>();
+        this.pendingWrites = new ConcurrentLinkedQueue<>();
+        this.pendingCloses = new ConcurrentLinkedQueue<>();
+        this.pendingReads = new ConcurrentLinkedQueue<>();
+    }
+
+    public void start(final String name) {
+        this.thread = new Thread(this, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public boolean inEventLoop() {
+        return Thread.currentThread() == this.thread;
+    }
+
+    public void register(final ChannelHandler handler) {
+        this.pendingRegistrations.add(handler);
+        this.selector.wakeup();
+    }
+
+    public void scheduleWrite(final ChannelHandler handler) {
+        this.pendingWrites.add(handler);
+        this.selector.wakeup();
+    }
+
+    /**
+     * Have the event loop shut down a handler closed from another thread, so that its connection is only released
+     * once the loop can no longer be using it.
+     */
+    public void scheduleClose(final ChannelHandler handler) {
+        this.pendingCloses.add(handler);
+        this.selector.wakeup();
+    }
+
+    /**
+     * Have the event loop resume reading from a handler whose request backlog has been worked off.
+     */
+    public void scheduleRead(final ChannelHandler handler) {
+        this.pendingReads.add(handler);
+        this.selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        while(true) {
+            try {
+                this.selector.select();
+            } catch (IOException e) {
+                log.error("Event loop terminating due to unexpected IOException.", e);
+                return;
+            }
+
+            ChannelHandler handler;
+            while((handler = this.pendingRegistrations.poll()) != null) {
+                this.dispatch(handler, h -> h.register(this.selector));
+            }
+
+            while((handler = this.pendingWrites.poll()) != null) {
+                this.dispatch(handler, ChannelHandler::flush);
+            }
+
+            while((handler = this.pendingReads.poll()) != null) {
+                this.dispatch(handler, ChannelHandler::resumeReading);
+            }
+
+            while((handler = this.pendingCloses.poll()) != null) {
+                this.dispatch(handler, ChannelHandler::shutdown);
+            }
+
+            Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+            while(keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+
+                this.dispatch((ChannelHandler) key.attachment(), h -> {
+                    if(key.isValid() && key.isReadable()) {
+                        h.read();
+                    }
+
+                    if(key.isValid() && key.isWritable()) {
+                        h.flush();
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Run a task for a handler, closing the handler rather than losing the loop if it fails unexpectedly.
+     */
+    private void dispatch(final ChannelHandler handler, final Consumer<ChannelHandler> task) {
+        try {
+            task.accept(handler);
+        } catch (RuntimeException e) {
+            log.error("Closing channel due to unexpected exception on the event loop.", e);
+            try {
+                handler.close();
+            } catch (IOException | RuntimeException suppressed) {
+                log.warn("Unable to close channel cleanly.", suppressed);
+            }
+        }
+    }
+}
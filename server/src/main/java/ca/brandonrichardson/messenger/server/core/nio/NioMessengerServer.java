@@ -0,0 +1,89 @@
+package ca.brandonrichardson.messenger.server.core.nio;
+
+import ca.brandonrichardson.messenger.server.core.AdmissionController;
+import ca.brandonrichardson.messenger.server.core.Connection;
+import ca.brandonrichardson.messenger.server.infra.RuntimeConstants;
+import ca.brandonrichardson.messenger.server.infra.SlowConsumerPolicy;
+import ca.brandonrichardson.messenger.server.session.SessionPrototype;
+import ca.brandonrichardson.messenger.server.svc.HandlerExecutors;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.Executor;
+
+@Slf4j
+public class NioMessengerServer {
+
+    public void start() {
+        log.info("Starting non-blocking server on port {} with {} event loops and {} request workers.", RuntimeConstants.portNumber,
+                RuntimeConstants.eventLoopThreads, RuntimeConstants.requestWorkerThreads);
+
+        //spill files are read back by whichever thread writes the connection, which here is an event loop
+        if(RuntimeConstants.slowConsumerPolicy == SlowConsumerPolicy.SPILL) {
+            log.warn("The SPILL slow consumer policy is not supported in NIO mode; disconnecting slow consumers instead.");
+            RuntimeConstants.slowConsumerPolicy = SlowConsumerPolicy.DISCONNECT;
+        }
+
+        SessionPrototype emptySession = new SessionPrototype(null, null);
+        try(ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            serverChannel.bind(new InetSocketAddress(RuntimeConstants.portNumber));
+
+            EventLoop[] eventLoops = new EventLoop[Math.max(1, RuntimeConstants.eventLoopThreads)];
+            for(int i = 0; i < eventLoops.length; i++) {
+                eventLoops[i] = new EventLoop();
+                eventLoops[i].start(String.format("event-loop-%d", i));
+            }
+
+            Executor workers = HandlerExecutors.fixedPool("request-worker", RuntimeConstants.requestWorkerThreads);
+
+            log.info("Server started successfully.");
+
+            int next = 0;
+            while(serverChannel.isOpen()) {
+                SocketChannel channel;
+                try {
+                    channel = serverChannel.accept();
+                } catch (IOException e) {
+                    if(!AdmissionController.getInstance().backOff(e)) {
+                        break;
+                    }
+
+                    continue;
+                }
+
+                Connection connection = AdmissionController.getInstance().admit(channel.socket());
+                if(connection == null) {
+                    continue;
+                }
+
+                String address = channel.socket().getInetAddress().getHostAddress();
+                try {
+                    channel.configureBlocking(false);
+                    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                } catch (IOException e) {
+                    AdmissionController.getInstance().abandon(connection, channel.socket(), e);
+                    continue;
+                }
+
+                connection.setSocket(channel.socket());
+                connection.setSession(emptySession.clone());
+
+                EventLoop eventLoop = eventLoops[next];
+                next = (next + 1) % eventLoops.length;
+
+                ChannelHandler handler = new ChannelHandler(connection, channel, eventLoop, workers);
+                connection.setTransport(handler);
+                eventLoop.register(handler);
+
+                log.info("Successfully established connection to {}; registered with event loop.", address);
+            }
+        } catch (IOException e) {
+            log.error("Unrecoverable IOException throw in NioMessengerServer.", e);
+            System.exit(1);
+        }
+    }
+}
@@ -1,8 +1,84 @@
 package ca.brandonrichardson.messenger.server.infra;
 
+import java.nio.file.Paths;
+
 public abstract class RuntimeConstants {
 
     public static String secret = "PASSWORD";
 
     public static int portNumber = 5100;
+
+    public static int maxPoolSize = Integer.getInteger("messenger.maxPoolSize", 1024);
+
+    public static int softPoolSize = Integer.getInteger("messenger.softPoolSize", maxPoolSize * 3 / 4);
+
+    public static int maxPendingHandshakes = Integer.getInteger("messenger.maxPendingHandshakes", 128);
+
+    public static long handshakeTimeout = Long.getLong("messenger.handshakeTimeout", 10000);
+
+    public static long sheddingLatency = Long.getLong("messenger.sheddingLatency", 100);
+
+    public static long sessionTimeToLive = Long.getLong("messenger.sessionTimeToLive", 0);
+
+    public static ServerMode serverMode = ServerMode.THREAD_PER_CONNECTION;
+
+    public static int eventLoopThreads = Integer.getInteger("messenger.eventLoopThreads", Runtime.getRuntime().availableProcessors());
+
+    public static int requestWorkerThreads = Integer.getInteger("messenger.requestWorkerThreads", 2 * Runtime.getRuntime().availableProcessors());
+
+    public static int outboundQueueCapacity = Integer.getInteger("messenger.outboundQueueCapacity", 1024);
+
+    public static int sheddingQueueDepth = Integer.getInteger("messenger.sheddingQueueDepth", outboundQueueCapacity / 4);
+
+    public static int coalesceBufferSize = Integer.getInteger("messenger.coalesceBufferSize", 16384);
+
+    public static long coalesceDelay = Long.getLong("messenger.coalesceDelay", 0);
+
+    public static int compressionThreshold = Integer.getInteger("messenger.compressionThreshold", 512);
+
+    public static int userRateLimit = Integer.getInteger("messenger.userRateLimit", 100);
+
+    public static int userRateBurst = Integer.getInteger("messenger.userRateBurst", 200);
+
+    public static int addressRateLimit = Integer.getInteger("messenger.addressRateLimit", 100);
+
+    public static int addressRateBurst = Integer.getInteger("messenger.addressRateBurst", 1000);
+
+    public static SlowConsumerPolicy slowConsumerPolicy = SlowConsumerPolicy.valueOf(System.getProperty("messenger.slowConsumerPolicy", "DROP_NEWEST").toUpperCase());
+
+    public static long slowConsumerLagThreshold = Long.getLong("messenger.slowConsumerLagThreshold", 30000);
+
+    public static String spillDirectory = System.getProperty("messenger.spillDirectory", System.getProperty("java.io.tmpdir"));
+
+    public static long spillLimit = Long.getLong("messenger.spillLimit", 64 << 20);
+
+    public static long metricsReportInterval = Long.getLong("messenger.metricsReportInterval", 60);
+
+    public static int historyCapacity = Integer.getInteger("messenger.historyCapacity", 256);
+
+    public static int mailboxCapacity = Integer.getInteger("messenger.mailboxCapacity", 256);
+
+    public static long mailboxTimeToLive = Long.getLong("messenger.mailboxTimeToLive", 24 * 60 * 60 * 1000);
+
+    public static long mailboxMemoryBudget = Long.getLong("messenger.mailboxMemoryBudget", 16 << 20);
+
+    public static long mailboxSpillLimit = Long.getLong("messenger.mailboxSpillLimit", 256 << 20);
+
+    public static int maxMailboxes = Integer.getInteger("messenger.maxMailboxes", 65536);
+
+    public static String mailboxDirectory = System.getProperty("messenger.mailboxDirectory", Paths.get(System.getProperty("java.io.tmpdir"), "messenger-mailbox").toString());
+
+    public static String logDirectory = System.getProperty("messenger.logDirectory");
+
+    public static int logSegmentSize = Integer.getInteger("messenger.logSegmentSize", 64 << 20);
+
+    public static int logRetentionSegments = Integer.getInteger("messenger.logRetentionSegments", 8);
+
+    public static int logQueueCapacity = Integer.getInteger("messenger.logQueueCapacity", 8192);
+
+    public static int eventLogCapacity = Integer.getInteger("messenger.eventLogCapacity", 8192);
+
+    public static int eventLogSampleRate = Integer.getInteger("messenger.eventLogSampleRate", 1);
+
+    public static int eventLogRateLimit = Integer.getInteger("messenger.eventLogRateLimit", 100);
 }
@@ -0,0 +1,7 @@
+package ca.brandonrichardson.messenger.server.infra;
+
+public enum ServerMode {
+    THREAD_PER_CONNECTION,
+    VIRTUAL_THREAD,
+    NIO
+}
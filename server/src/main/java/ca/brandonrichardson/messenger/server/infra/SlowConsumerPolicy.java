@@ -0,0 +1,11 @@
+package ca.brandonrichardson.messenger.server.infra;
+
+/**
+ * What to do with a frame sent to a connection whose outbound queue is full.
+ */
+public enum SlowConsumerPolicy {
+    DROP_OLDEST,
+    DROP_NEWEST,
+    DISCONNECT,
+    SPILL
+}
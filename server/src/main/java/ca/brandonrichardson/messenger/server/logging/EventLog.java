@@ -0,0 +1,299 @@
+package ca.brandonrichardson.messenger.server.logging;
+
+import ca.brandonrichardson.messenger.server.infra.RuntimeConstants;
+import ca.brandonrichardson.messenger.server.metrics.ServerMetrics;
+import ca.brandonrichardson.messenger.server.time.CachedClock;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous log of message path events. Recording an event claims a slot in a preallocated ring and publishes the
+ * event's arguments into it; a single writer thread formats published events and hands them to their logger, so the
+ * appender's I/O never happens on a handler thread. Recording never blocks: if the ring is full the event is
+ * suppressed.
+ *
+ * Each event type below WARN is sampled (one in {@code eventLogSampleRate} events is kept, at random) and then rate
+ * limited to approximately {@code eventLogRateLimit} events per second; warnings are always kept unless the ring is
+ * full. The number of events suppressed by the rate limit or a full ring is logged once a second. The writer sleeps
+ * while the ring is empty and is woken by the next event published.
+ */
+@Slf4j
+public class EventLog implements Runnable {
+
+    private static final long SUMMARY_INTERVAL = 1000;
+
+    private final Slot[] ring;
+
+    private final int mask;
+
+    private final AtomicLong claimed;
+
+    private volatile long consumed;
+
+    private final EventState[] states;
+
+    private volatile boolean running;
+
+    private volatile boolean sleeping;
+
+    private Thread writer;
+
+    private EventLog() {
+        int capacity = Integer.highestOneBit(Math.max(2, RuntimeConstants.eventLogCapacity - 1)) << 1;
+        this.ring = new Slot[capacity];
+        for(int i = 0; i < capacity; i++) {
+            this.ring[i] = new Slot();
+        }
+
+        this.mask = capacity - 1;
+        this.claimed = new AtomicLong();
+        this.consumed = 0;
+
+        LogEvent[] events = LogEvent.values();
+        this.states = new EventState[events.length];
+        for(LogEvent event : events) {
+            this.states[event.ordinal()] = new EventState(event);
+        }
+
+        this.running = false;
+        this.sleeping = false;
+    }
+
+    public synchronized void start() {
+        if(this.running) {
+            return;
+        }
+
+        this.running = true;
+
+        this.writer = new Thread(this, "event-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(this::stop, "event-log-shutdown"));
+    }
+
+    public void stop() {
+        Thread thread;
+        synchronized(this) {
+            if(!this.running) {
+                return;
+            }
+
+            this.running = false;
+            thread = this.writer;
+        }
+
+        LockSupport.unpark(thread);
+        try {
+            thread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void record(final LogEvent event, final Object argument) {
+        this.record(event, argument, null);
+    }
+
+    /**
+     * Record an event. Until the log is started, events are written on the calling thread, without sampling.
+     */
+    public void record(final LogEvent event, final Object first, final Object second) {
+        EventState state = this.states[event.ordinal()];
+        if(!state.isEnabled()) {
+            return;
+        }
+
+        if(!this.running) {
+            state.write(Thread.currentThread().getName(), first, second);
+            return;
+        }
+
+        if(state.sampleRate > 1 && ThreadLocalRandom.current().nextInt(state.sampleRate) != 0) {
+            return;
+        }
+
+        if(!state.acquire()) {
+            state.suppressed.increment();
+            return;
+        }
+
+        long sequence;
+        do {
+            sequence = this.claimed.get();
+            if(sequence - this.consumed >= this.ring.length) {
+                state.suppressed.increment();
+                return;
+            }
+        } while(!this.claimed.compareAndSet(sequence, sequence + 1));
+
+        Slot slot = this.ring[(int) sequence & this.mask];
+        slot.event = event;
+        slot.thread = Thread.currentThread().getName();
+        slot.first = first;
+        slot.second = second;
+        slot.published = sequence;
+
+        //the writer sets the flag before checking the ring for this event, so either it sees the event or we see it asleep
+        if(this.sleeping) {
+            LockSupport.unpark(this.writer);
+        }
+    }
+
+    @Override
+    public void run() {
+        long nextSummary = CachedClock.currentTimeMillis() + SUMMARY_INTERVAL;
+        while(true) {
+            long sequence = this.consumed;
+            Slot slot = this.ring[(int) sequence & this.mask];
+            if(slot.published == sequence) {
+                this.states[slot.event.ordinal()].write(slot.thread, slot.first, slot.second);
+                slot.first = null;
+                slot.second = null;
+                this.consumed = sequence + 1;
+                continue;
+            }
+
+            if(CachedClock.currentTimeMillis() >= nextSummary) {
+                this.summarize();
+                nextSummary = CachedClock.currentTimeMillis() + SUMMARY_INTERVAL;
+            }
+
+            //a slot claimed before the log stopped is published promptly, so it is still written
+            if(!this.running && this.claimed.get() == sequence) {
+                break;
+            }
+
+            this.sleeping = true;
+            if(slot.published != sequence) {
+                long timeout = Math.max(1, nextSummary - CachedClock.currentTimeMillis());
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(timeout));
+            }
+
+            this.sleeping = false;
+        }
+
+        this.summarize();
+    }
+
+    private void summarize() {
+        for(EventState state : this.states) {
+            long suppressed = state.suppressed.sumThenReset();
+            if(suppressed > 0) {
+                log.info("Suppressed {} {} event(s).", suppressed, state.event);
+                ServerMetrics.getInstance().recordSuppressedLogEvents(suppressed);
+            }
+        }
+    }
+
+    public static EventLog getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    private static class InstanceHolder {
+        private static final EventLog INSTANCE = new EventLog();
+    }
+
+    private static class Slot {
+
+        private volatile long published = -1;
+
+        private LogEvent event;
+
+        private String thread;
+
+        private Object first, second;
+    }
+
+    private static class EventState {
+
+        private final LogEvent event;
+
+        private final Logger logger;
+
+        private final String format;
+
+        private final int sampleRate;
+
+        private final int rateLimit;
+
+        private volatile long window;
+
+        private final AtomicInteger permits;
+
+        private final LongAdder suppressed;
+
+        private EventState(final LogEvent event) {
+            this.event = event;
+            this.logger = LoggerFactory.getLogger(event.getLogger());
+            this.format = "[{}] " + event.getPattern();
+            if(event.getLevel().compareTo(LogEvent.Level.WARN) >= 0) {
+                this.sampleRate = 1;
+                this.rateLimit = 0;
+            } else {
+                this.sampleRate = Integer.getInteger("messenger.eventLogSampleRate." + event.name(), RuntimeConstants.eventLogSampleRate);
+                this.rateLimit = Integer.getInteger("messenger.eventLogRateLimit." + event.name(), RuntimeConstants.eventLogRateLimit);
+            }
+
+            this.window = 0;
+            this.permits = new AtomicInteger();
+            this.suppressed = new LongAdder();
+        }
+
+        private boolean isEnabled() {
+            switch(this.event.getLevel()) {
+                case TRACE:
+                    return this.logger.isTraceEnabled();
+                case DEBUG:
+                    return this.logger.isDebugEnabled();
+                case INFO:
+                    return this.logger.isInfoEnabled();
+                default:
+                    return this.logger.isWarnEnabled();
+            }
+        }
+
+        /**
+         * Take a permit from the current one second window. Windows are reset without coordination, so a few more
+         * events than the limit may be kept when one turns over.
+         */
+        private boolean acquire() {
+            if(this.rateLimit <= 0) {
+                return true;
+            }
+
+            long now = CachedClock.currentTimeMillis() / 1000;
+            if(now != this.window) {
+                this.window = now;
+                this.permits.set(0);
+            }
+
+            return this.permits.incrementAndGet() <= this.rateLimit;
+        }
+
+        private void write(final String thread, final Object first, final Object second) {
+            switch(this.event.getLevel()) {
+                case TRACE:
+                    this.logger.trace(this.format, thread, first, second);
+                    break;
+                case DEBUG:
+                    this.logger.debug(this.format, thread, first, second);
+                    break;
+                case INFO:
+                    this.logger.info(this.format, thread, first, second);
+                    break;
+                default:
+                    this.logger.warn(this.format, thread, first, second);
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package ca.brandonrichardson.messenger.server.logging;
+
+import ca.brandonrichardson.messenger.server.core.AdmissionController;
+import ca.brandonrichardson.messenger.server.svc.request.AuthenticationFilter;
+import ca.brandonrichardson.messenger.server.svc.request.RateLimitFilter;
+import ca.brandonrichardson.messenger.server.svc.request.RequestHandlerFilter;
+import ca.brandonrichardson.messenger.server.svc.request.SubscriptionFilter;
+import lombok.Getter;
+
+/**
+ * Events logged from the message path through the {@link EventLog}. Each event is written to the logger of the class
+ * that records it, at its level, with the values it was recorded with as the arguments of its pattern.
+ *
+ * Warnings are never sampled or rate limited, so events that a client can cause at will are logged at INFO at most.
+ */
+@Getter
+public enum LogEvent {
+
+    AUTHENTICATING(Level.INFO, AuthenticationFilter.class, "Processing authentication for {}."),
+    AUTHENTICATED(Level.INFO, AuthenticationFilter.class, "Successfully authenticated user {}."),
+    AUTHENTICATION_REJECTED(Level.WARN, AuthenticationFilter.class, "Authentication from {} rejected: {}."),
+    MESSAGE_RECEIVED(Level.INFO, RequestHandlerFilter.class, "Message received from {}."),
+    BROADCAST(Level.INFO, RequestHandlerFilter.class, "Broadcasting message from {}."),
+    CHANNEL_MESSAGE(Level.INFO, RequestHandlerFilter.class, "Routing message from {} to channel {}."),
+    MESSAGE_QUEUED(Level.TRACE, RequestHandlerFilter.class, "Message queued for {}."),
+    DIRECT_DELIVERED(Level.INFO, RequestHandlerFilter.class, "Delivering direct message from {} to {}."),
+    DIRECT_HELD(Level.INFO, RequestHandlerFilter.class, "Holding direct message from {} to {}."),
+    DIRECT_DROPPED(Level.INFO, RequestHandlerFilter.class, "Dropping direct message to {} from {}; the recipient is invalid, or not connected and their mailbox is full."),
+    DIRECT_FAILED(Level.INFO, RequestHandlerFilter.class, "Unable to deliver direct message to {}."),
+    BROADCAST_FAILED(Level.INFO, RequestHandlerFilter.class, "Unable to broadcast message to {}."),
+    NOT_SUBSCRIBED(Level.INFO, RequestHandlerFilter.class, "User {} is not subscribed to channel {}; dropping message."),
+    UNEXPECTED_ENTITY(Level.INFO, RequestHandlerFilter.class, "Unexpected message received from {}."),
+    INVALID_SESSION_KEY(Level.INFO, RequestHandlerFilter.class, "Invalid, expired or revoked session key for user {}; dropping connection."),
+    SUBSCRIPTION_KEY_INVALID(Level.INFO, SubscriptionFilter.class, "Invalid, expired or revoked session key for user {}; dropping connection."),
+    INVALID_CHANNEL(Level.INFO, SubscriptionFilter.class, "Invalid channel name received from {}."),
+    UNEXPECTED_SUBSCRIPTION(Level.INFO, SubscriptionFilter.class, "Unexpected subscription received from {}."),
+    USER_RATE_LIMITED(Level.WARN, RateLimitFilter.class, "User {} exceeded their request rate; dropping request."),
+    ADDRESS_RATE_LIMITED(Level.WARN, RateLimitFilter.class, "Authentication rate exceeded for {}; dropping connection."),
+    CONNECTION_REJECTED(Level.WARN, AdmissionController.class, "Connection from {} rejected: {}."),
+    CONNECTION_FAILED(Level.WARN, AdmissionController.class, "Unable to set up connection from {}: {}."),
+    ACCEPT_FAILED(Level.WARN, AdmissionController.class, "Unable to accept connection: {}; backing off."),
+    HANDSHAKE_EXPIRED(Level.WARN, AdmissionController.class, "Closing connection from {}; it did not authenticate in time.");
+
+    private final Level level;
+
+    private final String logger;
+
+    private final String pattern;
+
+    LogEvent(final Level level, final Class<?> source, final String pattern) {
+        this.level = level;
+        this.logger = source.getName();
+        this.pattern = pattern;
+    }
+
+    public enum Level {
+        TRACE, DEBUG, INFO, WARN
+    }
+}
@@ -0,0 +1,306 @@
+package ca.brandonrichardson.messenger.server.metrics;
+
+import ca.brandonrichardson.messenger.common.metrics.Histogram;
+import ca.brandonrichardson.messenger.common.metrics.HistogramSnapshot;
+import ca.brandonrichardson.messenger.server.core.AdmissionController;
+import ca.brandonrichardson.messenger.server.core.Connection;
+import ca.brandonrichardson.messenger.server.core.ConnectionPool;
+import ca.brandonrichardson.messenger.server.infra.RuntimeConstants;
+import ca.brandonrichardson.messenger.server.session.SessionPrototype;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Server-wide metrics. Recording is lock-free so that it can be done on the message path; histograms record
+ * latencies in nanoseconds.
+ */
+@Slf4j
+public class ServerMetrics implements ServerMetricsMXBean {
+
+    private static final String OBJECT_NAME = "ca.brandonrichardson.messenger:type=ServerMetrics";
+
+    @Getter
+    private final Histogram authentication, broadcastFanOut, logCommit;
+
+    private final Map<String, Histogram> filters;
+
+    private final LongAdder rejectedConnections, shedConnections, bytesIn, bytesOut, droppedLogAppends, suppressedLogEvents;
+
+    private final LongAdder droppedFrames, spilledFrames, slowConsumerDisconnects, rateLimitedRequests;
+
+    private final LongAdder flushes, flushedFrames;
+
+    private final LongAdder compressedFrames, uncompressedBytes, compressedBytes;
+
+    private ServerMetrics() {
+        this.authentication = new Histogram();
+        this.broadcastFanOut = new Histogram();
+        this.logCommit = new Histogram();
+        this.filters = new ConcurrentHashMap<>();
+        this.rejectedConnections = new LongAdder();
+        this.shedConnections = new LongAdder();
+        this.bytesIn = new LongAdder();
+        this.bytesOut = new LongAdder();
+        this.droppedLogAppends = new LongAdder();
+        this.suppressedLogEvents = new LongAdder();
+        this.droppedFrames = new LongAdder();
+        this.spilledFrames = new LongAdder();
+        this.slowConsumerDisconnects = new LongAdder();
+        this.rateLimitedRequests = new LongAdder();
+        this.flushes = new LongAdder();
+        this.flushedFrames = new LongAdder();
+        this.compressedFrames = new LongAdder();
+        this.uncompressedBytes = new LongAdder();
+        this.compressedBytes = new LongAdder();
+    }
+
+    public void start() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            log.warn("Unable to register server metrics MBean.", e);
+        }
+
+        if(RuntimeConstants.metricsReportInterval > 0) {
+            ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "metrics-reporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+            reporter.scheduleAtFixedRate(this::report, RuntimeConstants.metricsReportInterval, RuntimeConstants.metricsReportInterval, TimeUnit.SECONDS);
+        }
+    }
+
+    public Histogram filter(final String name) {
+        return this.filters.computeIfAbsent(name, key -> new Histogram());
+    }
+
+    public void recordRejectedConnection() {
+        this.rejectedConnections.increment();
+    }
+
+    public void recordShedConnection() {
+        this.shedConnections.increment();
+    }
+
+    public void recordBytesIn(final long bytes) {
+        this.bytesIn.add(bytes);
+    }
+
+    public void recordBytesOut(final long bytes) {
+        this.bytesOut.add(bytes);
+    }
+
+    public void recordDroppedLogAppend() {
+        this.droppedLogAppends.increment();
+    }
+
+    public void recordSuppressedLogEvents(final long events) {
+        this.suppressedLogEvents.add(events);
+    }
+
+    public void recordFlush(final int frames) {
+        this.flushes.increment();
+        this.flushedFrames.add(frames);
+    }
+
+    public void recordCompression(final int uncompressed, final int compressed) {
+        this.compressedFrames.increment();
+        this.uncompressedBytes.add(uncompressed);
+        this.compressedBytes.add(compressed);
+    }
+
+    public void recordDroppedFrame() {
+        this.droppedFrames.increment();
+    }
+
+    public void recordSpilledFrame() {
+        this.spilledFrames.increment();
+    }
+
+    public void recordSlowConsumerDisconnect() {
+        this.slowConsumerDisconnects.increment();
+    }
+
+    public void recordRateLimitedRequest() {
+        this.rateLimitedRequests.increment();
+    }
+
+    @Override
+    public int getActiveConnections() {
+        return ConnectionPool.getInstance().getActiveCount();
+    }
+
+    @Override
+    public int getFreeConnections() {
+        return ConnectionPool.getInstance().getFreeCount();
+    }
+
+    @Override
+    public long getRejectedConnections() {
+        return this.rejectedConnections.sum();
+    }
+
+    @Override
+    public long getShedConnections() {
+        return this.shedConnections.sum();
+    }
+
+    @Override
+    public int getPendingHandshakes() {
+        return AdmissionController.getInstance().getPendingHandshakes();
+    }
+
+    @Override
+    public long getHandlerLatency() {
+        return AdmissionController.getInstance().getLatency();
+    }
+
+    @Override
+    public double getOutboundQueueDepth() {
+        return AdmissionController.getInstance().getQueueDepth();
+    }
+
+    @Override
+    public long getBytesIn() {
+        return this.bytesIn.sum();
+    }
+
+    @Override
+    public long getBytesOut() {
+        return this.bytesOut.sum();
+    }
+
+    @Override
+    public long getDroppedLogAppends() {
+        return this.droppedLogAppends.sum();
+    }
+
+    @Override
+    public long getSuppressedLogEvents() {
+        return this.suppressedLogEvents.sum();
+    }
+
+    @Override
+    public long getFlushes() {
+        return this.flushes.sum();
+    }
+
+    @Override
+    public double getFramesPerFlush() {
+        long flushes = this.flushes.sum();
+        return flushes > 0 ? (double) this.flushedFrames.sum() / flushes : 0;
+    }
+
+    @Override
+    public long getCompressedFrames() {
+        return this.compressedFrames.sum();
+    }
+
+    @Override
+    public double getCompressionRatio() {
+        long compressed = this.compressedBytes.sum();
+        return compressed > 0 ? (double) this.uncompressedBytes.sum() / compressed : 0;
+    }
+
+    @Override
+    public long getDroppedFrames() {
+        return this.droppedFrames.sum();
+    }
+
+    @Override
+    public long getSpilledFrames() {
+        return this.spilledFrames.sum();
+    }
+
+    @Override
+    public long getSlowConsumerDisconnects() {
+        return this.slowConsumerDisconnects.sum();
+    }
+
+    @Override
+    public long getRateLimitedRequests() {
+        return this.rateLimitedRequests.sum();
+    }
+
+    @Override
+    public Map<String, Long> getConnectionLag() {
+        Map<String, Long> lag = new TreeMap<>();
+        for(Connection connection : ConnectionPool.getInstance().getActiveConnections()) {
+            long millis = connection.getLag();
+            SessionPrototype session = connection.getSession();
+            if(millis > 0 && session != null) {
+                lag.put(String.format("%s#%x", session.getUsername(), System.identityHashCode(connection)), millis);
+            }
+        }
+
+        return lag;
+    }
+
+    @Override
+    public HistogramSnapshot getAuthenticationLatency() {
+        return this.authentication.snapshot();
+    }
+
+    @Override
+    public HistogramSnapshot getBroadcastFanOutLatency() {
+        return this.broadcastFanOut.snapshot();
+    }
+
+    @Override
+    public HistogramSnapshot getLogCommitLatency() {
+        return this.logCommit.snapshot();
+    }
+
+    @Override
+    public Map<String, HistogramSnapshot> getFilterLatencies() {
+        Map<String, HistogramSnapshot> snapshots = new TreeMap<>();
+        this.filters.forEach((name, histogram) -> snapshots.put(name, histogram.snapshot()));
+
+        return snapshots;
+    }
+
+    private void report() {
+        log.info("Connections: active={} free={} pending={} rejected={} shed={}; bytes: in={} out={}; flushes={} ({} frames/flush)",
+                this.getActiveConnections(), this.getFreeConnections(), this.getPendingHandshakes(), this.getRejectedConnections(), this.getShedConnections(),
+                this.getBytesIn(), this.getBytesOut(), this.getFlushes(), String.format("%.2f", this.getFramesPerFlush()));
+        log.info("Load: handler latency={}ns outbound queue depth={}", this.getHandlerLatency(), String.format("%.2f", this.getOutboundQueueDepth()));
+        if(this.getCompressedFrames() > 0) {
+            log.info("Compression: frames={} ratio={}", this.getCompressedFrames(), String.format("%.2f", this.getCompressionRatio()));
+        }
+        log.info("Slow consumers: lagging={} dropped frames={} spilled frames={} disconnects={}",
+                this.getConnectionLag().size(), this.getDroppedFrames(), this.getSpilledFrames(), this.getSlowConsumerDisconnects());
+        if(this.getRateLimitedRequests() > 0) {
+            log.info("Rate limiting: refused requests={}", this.getRateLimitedRequests());
+        }
+        log.info("Authentication latency (ns): {}", this.getAuthenticationLatency());
+        log.info("Broadcast fan-out latency (ns): {}", this.getBroadcastFanOutLatency());
+        if(this.logCommit.getCount() > 0 || this.getDroppedLogAppends() > 0) {
+            log.info("Message log commit latency (ns): {}; dropped appends={}", this.getLogCommitLatency(), this.getDroppedLogAppends());
+        }
+        if(this.getSuppressedLogEvents() > 0) {
+            log.info("Event log: suppressed events={}", this.getSuppressedLogEvents());
+        }
+        this.getFilterLatencies().forEach((name, snapshot) -> log.info("{} latency (ns): {}", name, snapshot));
+    }
+
+    public static ServerMetrics getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    private static class InstanceHolder {
+        private static final ServerMetrics INSTANCE = new ServerMetrics();
+    }
+}
@@ -0,0 +1,86 @@
+package ca.brandonrichardson.messenger.server.metrics;
+
+import ca.brandonrichardson.messenger.common.metrics.HistogramSnapshot;
+
+import java.util.Map;
+
+/**
+ * Management interface exposing server metrics over JMX. Latencies are reported in nanoseconds.
+ */
+public interface ServerMetricsMXBean {
+
+    int getActiveConnections();
+
+    int getFreeConnections();
+
+    /**
+     * Connections refused by admission control, for any reason.
+     */
+    long getRejectedConnections();
+
+    /**
+     * Connections refused above the soft pool size because the server was overloaded.
+     */
+    long getShedConnections();
+
+    int getPendingHandshakes();
+
+    /**
+     * Smoothed time taken to handle a request, as used for load shedding.
+     */
+    long getHandlerLatency();
+
+    /**
+     * Mean number of frames waiting to be written to each connection, as used for load shedding.
+     */
+    double getOutboundQueueDepth();
+
+    long getBytesIn();
+
+    long getBytesOut();
+
+    long getFlushes();
+
+    /**
+     * Mean number of frames coalesced into each write to a socket.
+     */
+    double getFramesPerFlush();
+
+    long getCompressedFrames();
+
+    /**
+     * Bytes of frames before compression for each byte written in their place, over every compressed frame.
+     */
+    double getCompressionRatio();
+
+    long getDroppedLogAppends();
+
+    /**
+     * Message path events that the event log rate limited or had no room for. Sampled out events are not counted.
+     */
+    long getSuppressedLogEvents();
+
+    long getDroppedFrames();
+
+    long getSpilledFrames();
+
+    long getSlowConsumerDisconnects();
+
+    /**
+     * Requests refused by the per-user and per-address rate limits.
+     */
+    long getRateLimitedRequests();
+
+    /**
+     * Milliseconds since each connection with a backlog of outbound frames last made progress on it.
+     */
+    Map<String, Long> getConnectionLag();
+
+    HistogramSnapshot getAuthenticationLatency();
+
+    HistogramSnapshot getBroadcastFanOutLatency();
+
+    HistogramSnapshot getLogCommitLatency();
+
+    Map<String, HistogramSnapshot> getFilterLatencies();
+}
@@ -1,5 +1,6 @@
 package ca.brandonrichardson.messenger.server.session;
 
+import ca.brandonrichardson.messenger.server.svc.SessionKeyGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
@@ -11,9 +12,33 @@ public class SessionPrototype implements Cloneable {
 
     private String username;
 
-    private String sessionKey;
+    private volatile String sessionKey;
+
+    private long expiresAt;
+
+    private volatile boolean revoked;
+
+    public SessionPrototype(final String username, final String sessionKey) {
+        this(username, sessionKey, Long.MAX_VALUE, false);
+    }
+
+    /**
+     * Verify a session key presented by the client against the key bound to this session at authentication, without
+     * recomputing the key. The comparison takes constant time regardless of where the keys differ.
+     */
+    public boolean verify(final String sessionKey) {
+        if(this.revoked || System.currentTimeMillis() >= this.expiresAt) {
+            return false;
+        }
+
+        return SessionKeyGenerator.constantTimeEquals(this.sessionKey, sessionKey);
+    }
+
+    public void revoke() {
+        this.revoked = true;
+    }
 
     public SessionPrototype clone() {
-        return new SessionPrototype(this.username, this.sessionKey);
+        return new SessionPrototype(this.username, this.sessionKey, this.expiresAt, this.revoked);
     }
 }
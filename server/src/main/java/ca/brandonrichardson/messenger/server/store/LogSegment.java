@@ -0,0 +1,184 @@
+package ca.brandonrichardson.messenger.server.store;
+
+import ca.brandonrichardson.messenger.common.wire.Frames;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A single memory-mapped file of the message log. Records are stored as frames, exactly as they are written to the
+ * wire, one after another; the unused remainder of the file is zero-filled, so the end of the log is the first
+ * record with a length of zero. A sparse index maps every few kilobytes of records to their offset so that reads
+ * do not need to scan the segment from the start.
+ */
+public class LogSegment {
+
+    private static final int INDEX_INTERVAL_BYTES = 4096;
+
+    @Getter
+    private final Path path;
+
+    @Getter
+    private final long baseOffset;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private int position;
+
+    private int entries;
+
+    private int lastIndexedPosition;
+
+    private long[] indexOffsets;
+
+    private int[] indexPositions;
+
+    private int indexSize;
+
+    private LogSegment(final Path path, final long baseOffset, final FileChannel channel, final MappedByteBuffer buffer) {
+        this.path = path;
+        this.baseOffset = baseOffset;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.position = 0;
+        this.entries = 0;
+        this.lastIndexedPosition = -INDEX_INTERVAL_BYTES;
+        this.indexOffsets = new long[64];
+        this.indexPositions = new int[64];
+        this.indexSize = 0;
+    }
+
+    /**
+     * Open, or create, the segment at the given path, mapping at least capacity bytes. Existing records are scanned
+     * to recover the end of the log and rebuild the sparse index, stopping at the first empty or invalid length.
+     */
+    public static LogSegment open(final Path path, final long baseOffset, final long capacity) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), capacity));
+
+        LogSegment segment = new LogSegment(path, baseOffset, channel, buffer);
+        segment.recover();
+        return segment;
+    }
+
+    public static String fileName(final long baseOffset) {
+        return String.format("%020d.log", baseOffset);
+    }
+
+    /**
+     * Append a frame to the segment.
+     *
+     * @return false if the segment does not have room for the frame.
+     */
+    public synchronized boolean append(final ByteBuffer frame) {
+        if(frame.remaining() > this.buffer.capacity() - this.position) {
+            return false;
+        }
+
+        this.index(this.baseOffset + this.entries, this.position);
+
+        ByteBuffer target = this.buffer.duplicate();
+        target.position(this.position);
+        target.put(frame.duplicate());
+
+        this.position = target.position();
+        this.entries++;
+        return true;
+    }
+
+    /**
+     * Read up to maxEntries frames, starting at the given offset, adding read-only views of each frame to the list.
+     *
+     * @return the number of frames read.
+     */
+    public synchronized int read(final long offset, final int maxEntries, final List<ByteBuffer> frames) {
+        if(offset < this.baseOffset || offset >= this.getNextOffset() || maxEntries <= 0) {
+            return 0;
+        }
+
+        int slot = Arrays.binarySearch(this.indexOffsets, 0, this.indexSize, offset);
+        if(slot < 0) {
+            slot = -slot - 2;
+        }
+
+        long current = this.indexOffsets[slot];
+        int cursor = this.indexPositions[slot];
+        while(current < offset) {
+            cursor += Frames.HEADER_LENGTH + this.buffer.getInt(cursor);
+            current++;
+        }
+
+        int read = 0;
+        while(read < maxEntries && cursor < this.position) {
+            int length = Frames.HEADER_LENGTH + this.buffer.getInt(cursor);
+            ByteBuffer frame = this.buffer.asReadOnlyBuffer();
+            frame.position(cursor).limit(cursor + length);
+            frames.add(frame.slice());
+
+            cursor += length;
+            read++;
+        }
+
+        return read;
+    }
+
+    public synchronized long getNextOffset() {
+        return this.baseOffset + this.entries;
+    }
+
+    public synchronized int getSize() {
+        return this.position;
+    }
+
+    public void force() {
+        this.buffer.force();
+    }
+
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    public void delete() throws IOException {
+        this.close();
+        Files.deleteIfExists(this.path);
+    }
+
+    private void recover() {
+        while(this.position <= this.buffer.capacity() - Frames.HEADER_LENGTH) {
+            int length = this.buffer.getInt(this.position);
+            if(length <= 0 || length > Frames.MAX_FRAME_LENGTH || length > this.buffer.capacity() - this.position - Frames.HEADER_LENGTH) {
+                break;
+            }
+
+            this.index(this.baseOffset + this.entries, this.position);
+            this.position += Frames.HEADER_LENGTH + length;
+            this.entries++;
+        }
+    }
+
+    private void index(final long offset, final int position) {
+        if(position - this.lastIndexedPosition < INDEX_INTERVAL_BYTES) {
+            return;
+        }
+
+        if(this.indexSize == this.indexOffsets.length) {
+            this.indexOffsets = Arrays.copyOf(this.indexOffsets, this.indexSize * 2);
+            this.indexPositions = Arrays.copyOf(this.indexPositions, this.indexSize * 2);
+        }
+
+        this.indexOffsets[this.indexSize] = offset;
+        this.indexPositions[this.indexSize] = position;
+        this.indexSize++;
+        this.lastIndexedPosition = position;
+    }
+}
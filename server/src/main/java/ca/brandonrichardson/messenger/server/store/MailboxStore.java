@@ -0,0 +1,494 @@
+package ca.brandonrichardson.messenger.server.store;
+
+import ca.brandonrichardson.messenger.common.keygen.Hex;
+import ca.brandonrichardson.messenger.common.wire.CodecType;
+import ca.brandonrichardson.messenger.common.wire.EncodedEntity;
+import ca.brandonrichardson.messenger.common.wire.EntityCodec;
+import ca.brandonrichardson.messenger.common.wire.Frames;
+import ca.brandonrichardson.messenger.server.core.Connection;
+import ca.brandonrichardson.messenger.server.core.UserRegistry;
+import ca.brandonrichardson.messenger.server.infra.RuntimeConstants;
+import ca.brandonrichardson.messenger.server.session.SessionPrototype;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Holds direct messages for users who are not connected, and delivers them when the user next authenticates.
+ *
+ * Each mailbox holds at most {@code mailboxCapacity} messages, as binary frames, and messages expire after
+ * {@code mailboxTimeToLive} milliseconds. Once the frames held in memory across all mailboxes exceed
+ * {@code mailboxMemoryBudget} bytes, further messages are queued to be appended to a spill file for their mailbox
+ * instead; the queue is written out in batches on the mailbox thread, so depositing a message never waits on the disk.
+ * At most {@code mailboxSpillLimit} bytes are spilled across all mailboxes, and at most {@code maxMailboxes} mailboxes
+ * are held at once. Every change to a mailbox is made atomically through the map, in the same way as the
+ * ChannelRegistry.
+ *
+ * Mailboxes are drained on a dedicated thread, in batches that are only sent while the recipient's outbound queue
+ * is less than half full, so a large mailbox neither blocks the thread that authenticated the user nor crowds out
+ * other traffic to it.
+ */
+@Slf4j
+public class MailboxStore {
+
+    private static final int DRAIN_BATCH_SIZE = 64;
+
+    private static final long DRAIN_RETRY_DELAY = 10;
+
+    private static final String SPILL_FILE_SUFFIX = ".mbox";
+
+    private static final EntityCodec CODEC = CodecType.BINARY.getCodec();
+
+    private final Map<String, Mailbox> mailboxes;
+
+    private final Set<String> draining;
+
+    private final AtomicLong memoryUsage, spillUsage;
+
+    private final ScheduledExecutorService executor;
+
+    private final Path directory;
+
+    private MailboxStore() {
+        this.mailboxes = new ConcurrentHashMap<>();
+        this.draining = ConcurrentHashMap.newKeySet();
+        this.memoryUsage = new AtomicLong();
+        this.spillUsage = new AtomicLong();
+        this.directory = Paths.get(RuntimeConstants.mailboxDirectory);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mailbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.deleteSpillFiles();
+        if(RuntimeConstants.mailboxTimeToLive > 0) {
+            long interval = Math.max(1000, RuntimeConstants.mailboxTimeToLive / 10);
+            this.executor.scheduleAtFixedRate(this::expire, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Hold a message for a user who is not connected.
+     *
+     * @return false if the user's mailbox is full, or the message could not be stored.
+     */
+    public boolean deposit(final String username, final EncodedEntity entity) throws IOException {
+        //the username names the mailbox's spill file, so it is bounded before a mailbox is made for it
+        if(RuntimeConstants.mailboxCapacity <= 0 || !UserRegistry.isValidUsername(username)) {
+            return false;
+        }
+
+        ByteBuffer frame = entity.frame(CODEC);
+        byte[] bytes = new byte[frame.remaining()];
+        frame.get(bytes);
+
+        Entry entry = new Entry(System.currentTimeMillis(), bytes);
+        boolean[] accepted = new boolean[1];
+        this.mailboxes.compute(username, (name, mailbox) -> {
+            if(mailbox == null && this.mailboxes.size() >= RuntimeConstants.maxMailboxes) {
+                return null;
+            }
+
+            Mailbox target = mailbox != null ? mailbox : new Mailbox(name);
+            accepted[0] = target.add(entry);
+            return target.isEmpty() ? null : target;
+        });
+
+        return accepted[0];
+    }
+
+    /**
+     * @return true if messages are held, or being delivered, for the given user; new messages to them should be held
+     * too, so that they are delivered in order.
+     */
+    public boolean isHolding(final String username) {
+        return this.mailboxes.containsKey(username) || this.draining.contains(username);
+    }
+
+    /**
+     * Start delivering any messages held for the user bound to the given connection.
+     */
+    public void deliver(final Connection connection) {
+        SessionPrototype session = connection.getSession();
+        if(session == null || session.getUsername() == null || !this.mailboxes.containsKey(session.getUsername())) {
+            return;
+        }
+
+        //messages held while a mailbox is being drained are picked up by that drain
+        if(!this.draining.add(session.getUsername())) {
+            return;
+        }
+
+        this.executor.execute(() -> {
+            Deque<Entry> entries = new ArrayDeque<>();
+            this.take(session.getUsername(), entries);
+
+            log.debug("Delivering {} held message(s) to {}.", entries.size(), session.getUsername());
+            this.drain(connection, session, entries);
+        });
+    }
+
+    private void drain(final Connection connection, final SessionPrototype session, final Deque<Entry> entries) {
+        if(connection.getSession() != session || session.getSessionKey() == null || session.isRevoked()) {
+            this.restore(session.getUsername(), entries);
+            this.finish(session.getUsername());
+            return;
+        }
+
+        int sent = 0;
+        long now = System.currentTimeMillis();
+        while(!entries.isEmpty() && sent < DRAIN_BATCH_SIZE && connection.getBacklog() < RuntimeConstants.outboundQueueCapacity / 2) {
+            Entry entry = entries.peek();
+            if(entry.isExpired(now)) {
+                entries.poll();
+                continue;
+            }
+
+            try {
+                connection.send(CODEC.decode(ByteBuffer.wrap(entry.frame, Frames.HEADER_LENGTH, entry.frame.length - Frames.HEADER_LENGTH).slice()));
+            } catch (IOException e) {
+                log.debug("Unable to deliver held message to {}; returning it to the mailbox.", session.getUsername());
+                this.restore(session.getUsername(), entries);
+                this.finish(session.getUsername());
+                return;
+            }
+
+            entries.poll();
+            sent++;
+        }
+
+        if(entries.isEmpty()) {
+            //pick up messages that were held for the user while this batch was being delivered
+            this.take(session.getUsername(), entries);
+        }
+
+        if(!entries.isEmpty()) {
+            this.executor.schedule(() -> this.drain(connection, session, entries), sent == DRAIN_BATCH_SIZE ? 0 : DRAIN_RETRY_DELAY, TimeUnit.MILLISECONDS);
+            return;
+        }
+
+        this.finish(session.getUsername());
+    }
+
+    private void take(final String username, final Deque<Entry> entries) {
+        Mailbox[] taken = new Mailbox[1];
+        this.mailboxes.computeIfPresent(username, (name, mailbox) -> {
+            taken[0] = mailbox;
+            return null;
+        });
+
+        //once out of the map the mailbox is only reachable from this thread, so its spill file is read unlocked
+        if(taken[0] != null) {
+            taken[0].takeAll(entries);
+        }
+    }
+
+    /**
+     * Append the messages queued for spilling from a user's mailbox to its spill file, in a single write. Spill files
+     * are only written, read and deleted on the mailbox thread, so the write is made outside the map.
+     */
+    private void flush(final String username) {
+        Deque<Entry> batch = new ArrayDeque<>();
+        Path[] spillFile = new Path[1];
+        this.mailboxes.computeIfPresent(username, (name, mailbox) -> {
+            mailbox.flushScheduled = false;
+            mailbox.spilled += mailbox.unspilled.size();
+            batch.addAll(mailbox.unspilled);
+            mailbox.unspilled.clear();
+            spillFile[0] = mailbox.spillFile;
+            return mailbox;
+        });
+
+        if(batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            Files.createDirectories(this.directory);
+            try(FileChannel channel = FileChannel.open(spillFile[0], StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                long start = channel.size();
+                channel.position(start);
+
+                try {
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+                    for(Entry entry : batch) {
+                        out.writeLong(entry.depositedAt);
+                        out.write(entry.frame);
+                    }
+
+                    out.flush();
+                } catch (IOException e) {
+                    //leave the file as it was, so that the messages already spilled can still be read back
+                    channel.truncate(start);
+                    throw e;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Unable to spill {} message(s) to {}; dropping them.", batch.size(), spillFile[0], e);
+
+            long bytes = 0;
+            for(Entry entry : batch) {
+                bytes += entry.frame.length;
+            }
+
+            long dropped = bytes;
+            this.mailboxes.computeIfPresent(username, (name, mailbox) -> {
+                mailbox.spilled -= batch.size();
+                mailbox.spillBytes -= dropped;
+                return mailbox.isEmpty() ? null : mailbox;
+            });
+
+            this.spillUsage.addAndGet(-dropped);
+        }
+    }
+
+    /**
+     * Stop draining a user's mailbox. Messages held in the meantime are delivered by a new drain if the user is still
+     * connected.
+     */
+    private void finish(final String username) {
+        this.draining.remove(username);
+        if(this.mailboxes.containsKey(username)) {
+            UserRegistry.getInstance().lookup(username).ifPresent(this::deliver);
+        }
+    }
+
+    private void restore(final String username, final Deque<Entry> entries) {
+        if(entries.isEmpty()) {
+            return;
+        }
+
+        this.mailboxes.compute(username, (name, mailbox) -> {
+            Mailbox target = mailbox != null ? mailbox : new Mailbox(name);
+            target.restore(entries);
+            return target.isEmpty() ? null : target;
+        });
+    }
+
+    private void expire() {
+        long now = System.currentTimeMillis();
+        for(String username : this.mailboxes.keySet()) {
+            Path[] expired = new Path[1];
+            this.mailboxes.computeIfPresent(username, (name, mailbox) -> {
+                if(mailbox.expire(now)) {
+                    expired[0] = mailbox.spillFile;
+                }
+
+                return mailbox.isEmpty() ? null : mailbox;
+            });
+
+            if(expired[0] != null) {
+                this.deleteSpillFile(expired[0]);
+            }
+        }
+    }
+
+    private void deleteSpillFile(final Path spillFile) {
+        try {
+            Files.deleteIfExists(spillFile);
+        } catch (IOException e) {
+            log.warn("Unable to delete mailbox file {}.", spillFile, e);
+        }
+    }
+
+    private void deleteSpillFiles() {
+        if(!Files.isDirectory(this.directory)) {
+            return;
+        }
+
+        try(Stream<Path> files = Files.list(this.directory)) {
+            files.filter(path -> path.getFileName().toString().endsWith(SPILL_FILE_SUFFIX)).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    log.warn("Unable to delete stale mailbox file {}.", path);
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Unable to list mailbox directory {}.", this.directory);
+        }
+    }
+
+    public static MailboxStore getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    private static class InstanceHolder {
+        private static final MailboxStore INSTANCE = new MailboxStore();
+    }
+
+    private static class Entry {
+
+        private final long depositedAt;
+
+        private final byte[] frame;
+
+        private Entry(final long depositedAt, final byte[] frame) {
+            this.depositedAt = depositedAt;
+            this.frame = frame;
+        }
+
+        private boolean isExpired(final long now) {
+            return RuntimeConstants.mailboxTimeToLive > 0 && now - this.depositedAt >= RuntimeConstants.mailboxTimeToLive;
+        }
+    }
+
+    /**
+     * The messages held for a single user: the oldest in memory, followed by any that were spilled to disk, followed by
+     * any still waiting to be spilled. Once a mailbox has spilled, every later message is spilled too, so that messages
+     * are always delivered in order. Mailboxes are only accessed inside the map's compute methods, or by the mailbox
+     * thread once taken out of the map, so they need no locking of their own.
+     */
+    private class Mailbox {
+
+        private final String username;
+
+        private final Deque<Entry> entries, unspilled;
+
+        private final Path spillFile;
+
+        private int spilled;
+
+        private long spillBytes, spilledAt;
+
+        private boolean flushScheduled;
+
+        private Mailbox(final String username) {
+            String name = Hex.encode(username.getBytes(StandardCharsets.UTF_8));
+
+            this.username = username;
+            this.entries = new ArrayDeque<>();
+            this.unspilled = new ArrayDeque<>();
+            this.spillFile = MailboxStore.this.directory.resolve(name + SPILL_FILE_SUFFIX);
+            this.spilled = 0;
+            this.spillBytes = 0;
+            this.spilledAt = 0;
+            this.flushScheduled = false;
+        }
+
+        private boolean add(final Entry entry) {
+            if(this.entries.size() + this.spilled + this.unspilled.size() >= RuntimeConstants.mailboxCapacity) {
+                return false;
+            }
+
+            if(!this.hasSpilled() && MailboxStore.this.memoryUsage.get() + entry.frame.length <= RuntimeConstants.mailboxMemoryBudget) {
+                this.entries.add(entry);
+                MailboxStore.this.memoryUsage.addAndGet(entry.frame.length);
+                return true;
+            }
+
+            if(MailboxStore.this.spillUsage.addAndGet(entry.frame.length) > RuntimeConstants.mailboxSpillLimit) {
+                MailboxStore.this.spillUsage.addAndGet(-entry.frame.length);
+                return false;
+            }
+
+            this.unspilled.add(entry);
+            this.spillBytes += entry.frame.length;
+            this.spilledAt = entry.depositedAt;
+            if(!this.flushScheduled) {
+                this.flushScheduled = true;
+                MailboxStore.this.executor.execute(() -> MailboxStore.this.flush(this.username));
+            }
+
+            return true;
+        }
+
+        private void restore(final Deque<Entry> restored) {
+            while(!restored.isEmpty()) {
+                Entry entry = restored.pollLast();
+                this.entries.addFirst(entry);
+                MailboxStore.this.memoryUsage.addAndGet(entry.frame.length);
+            }
+        }
+
+        private void takeAll(final Deque<Entry> target) {
+            for(Entry entry : this.entries) {
+                MailboxStore.this.memoryUsage.addAndGet(-entry.frame.length);
+            }
+
+            target.addAll(this.entries);
+            this.entries.clear();
+
+            if(!this.hasSpilled()) {
+                return;
+            }
+
+            if(this.spilled > 0) {
+                try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(this.spillFile)))) {
+                    for(int i = 0; i < this.spilled; i++) {
+                        long depositedAt = in.readLong();
+                        int length = in.readInt();
+                        Frames.checkLength(length);
+
+                        byte[] frame = new byte[Frames.HEADER_LENGTH + length];
+                        ByteBuffer.wrap(frame).putInt(length);
+                        in.readFully(frame, Frames.HEADER_LENGTH, length);
+                        target.add(new Entry(depositedAt, frame));
+                    }
+                } catch (IOException e) {
+                    log.warn("Unable to read spilled messages from {}.", this.spillFile, e);
+                }
+
+                MailboxStore.this.deleteSpillFile(this.spillFile);
+            }
+
+            target.addAll(this.unspilled);
+            this.discardSpill();
+        }
+
+        /**
+         * @return true if every spilled message has expired and been discarded, and the spill file should be deleted.
+         */
+        private boolean expire(final long now) {
+            while(!this.entries.isEmpty() && this.entries.peek().isExpired(now)) {
+                MailboxStore.this.memoryUsage.addAndGet(-this.entries.poll().frame.length);
+            }
+
+            //messages are spilled in the order they are deposited, so the spill has expired once its newest has
+            if(this.hasSpilled() && this.entries.isEmpty() && now - this.spilledAt >= RuntimeConstants.mailboxTimeToLive) {
+                this.discardSpill();
+                return true;
+            }
+
+            return false;
+        }
+
+        private boolean hasSpilled() {
+            return this.spilled > 0 || !this.unspilled.isEmpty();
+        }
+
+        private boolean isEmpty() {
+            return this.entries.isEmpty() && !this.hasSpilled();
+        }
+
+        private void discardSpill() {
+            MailboxStore.this.spillUsage.addAndGet(-this.spillBytes);
+            this.unspilled.clear();
+            this.spilled = 0;
+            this.spillBytes = 0;
+        }
+    }
+}
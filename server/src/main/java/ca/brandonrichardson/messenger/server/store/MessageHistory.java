@@ -0,0 +1,123 @@
+package ca.brandonrichardson.messenger.server.store;
+
+import ca.brandonrichardson.messenger.common.wire.EncodedEntity;
+import ca.brandonrichardson.messenger.server.infra.RuntimeConstants;
+import ca.brandonrichardson.messenger.server.time.CachedClock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-capacity ring of the most recently broadcast messages, replayed to clients as they authenticate. The ring is
+ * allocated once; appending claims the next sequence number and publishes into its slot, overwriting the oldest
+ * entry, so neither appends nor replays take a lock. Messages are kept in their encoded form, so replaying them
+ * costs no more than broadcasting them did.
+ */
+public class MessageHistory {
+
+    private final int capacity;
+
+    private final AtomicReferenceArray<Entry> slots;
+
+    private final AtomicLong sequence;
+
+    private MessageHistory() {
+        this.capacity = Math.max(0, RuntimeConstants.historyCapacity);
+        this.slots = new AtomicReferenceArray<>(this.capacity);
+        this.sequence = new AtomicLong();
+    }
+
+    /**
+     * @return the sequence number of the appended message.
+     */
+    public long append(final EncodedEntity entity) {
+        long claimed = this.sequence.getAndIncrement();
+        if(this.capacity == 0) {
+            return claimed;
+        }
+
+        Entry entry = new Entry(claimed, CachedClock.currentTimeMillis(), entity);
+        int slot = (int) (claimed % this.capacity);
+
+        Entry current;
+        do {
+            current = this.slots.get(slot);
+            if(current != null && current.sequence > claimed) {
+                return claimed;
+            }
+        } while(!this.slots.compareAndSet(slot, current, entry));
+
+        return claimed;
+    }
+
+    /**
+     * @return the sequence number that the next appended message will have.
+     */
+    public long getNextSequence() {
+        return this.sequence.get();
+    }
+
+    /**
+     * Return, oldest first, up to count of the most recent messages before the sequence number end that were received
+     * at or after since (in epoch milliseconds). A count of zero only limits the result to the capacity of the ring.
+     */
+    public List<EncodedEntity> replay(final int count, final long since, final long end) {
+        int limit = count > 0 ? Math.min(count, this.capacity) : this.capacity;
+        if(limit == 0) {
+            return Collections.emptyList();
+        }
+
+        long begin = Math.max(0, end - this.capacity);
+
+        List<EncodedEntity> entities = new ArrayList<>(Math.min(limit, (int) Math.max(0, end - begin)));
+        for(long s = end - 1; s >= begin && entities.size() < limit; s--) {
+            int slot = (int) (s % this.capacity);
+            Entry entry = this.slots.get(slot);
+
+            //a message claimed before end may still be being published, and it is not delivered live
+            while(entry == null || entry.sequence < s) {
+                Thread.onSpinWait();
+                entry = this.slots.get(slot);
+            }
+
+            if(entry.sequence != s) {
+                continue;
+            }
+
+            if(entry.timestamp < since) {
+                break;
+            }
+
+            entities.add(entry.entity);
+        }
+
+        Collections.reverse(entities);
+        return entities;
+    }
+
+    public static MessageHistory getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    private static class InstanceHolder {
+        private static final MessageHistory INSTANCE = new MessageHistory();
+    }
+
+    private static class Entry {
+
+        private final long sequence;
+
+        private final long timestamp;
+
+        private final EncodedEntity entity;
+
+        private Entry(final long sequence, final long timestamp, final EncodedEntity entity) {
+            this.sequence = sequence;
+            this.timestamp = timestamp;
+            this.entity = entity;
+        }
+    }
+}
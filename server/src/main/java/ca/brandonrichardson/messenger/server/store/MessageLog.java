@@ -0,0 +1,244 @@
+package ca.brandonrichardson.messenger.server.store;
+
+import ca.brandonrichardson.messenger.common.dto.TransportEntity;
+import ca.brandonrichardson.messenger.common.wire.CodecType;
+import ca.brandonrichardson.messenger.common.wire.EncodedEntity;
+import ca.brandonrichardson.messenger.common.wire.EntityCodec;
+import ca.brandonrichardson.messenger.common.wire.Frames;
+import ca.brandonrichardson.messenger.server.infra.RuntimeConstants;
+import ca.brandonrichardson.messenger.server.metrics.ServerMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Durable, append-only log of delivered messages, stored as a sequence of memory-mapped segments. Messages are
+ * handed off to a single writer thread through a bounded queue, so that the message path never waits on the disk;
+ * the writer appends everything that is queued and then forces the segment once for the whole batch. If the queue
+ * is full, the message is delivered but not persisted.
+ *
+ * The log is only enabled if a log directory is configured.
+ */
+@Slf4j
+public class MessageLog implements Runnable {
+
+    private static final int MAX_BATCH_SIZE = 1024;
+
+    private static final EntityCodec CODEC = CodecType.BINARY.getCodec();
+
+    private final BlockingQueue<EncodedEntity> pending;
+
+    private final List<LogSegment> segments;
+
+    private volatile LogSegment active;
+
+    private volatile boolean running;
+
+    private Thread writer;
+
+    private MessageLog() {
+        this.pending = new ArrayBlockingQueue<>(RuntimeConstants.logQueueCapacity);
+        this.segments = new CopyOnWriteArrayList<>();
+        this.running = false;
+    }
+
+    public synchronized void start() throws IOException {
+        if(RuntimeConstants.logDirectory == null || this.running) {
+            return;
+        }
+
+        Path directory = Paths.get(RuntimeConstants.logDirectory);
+        Files.createDirectories(directory);
+
+        List<Path> files;
+        try(Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().endsWith(".log")).sorted().collect(Collectors.toList());
+        }
+
+        for(int i = 0; i < files.size(); i++) {
+            Path path = files.get(i);
+            long baseOffset = Long.parseLong(path.getFileName().toString().replace(".log", ""));
+            long capacity = i == files.size() - 1 ? Math.max(Files.size(path), this.getSegmentSize()) : Files.size(path);
+            this.segments.add(LogSegment.open(path, baseOffset, capacity));
+        }
+
+        if(this.segments.isEmpty()) {
+            this.segments.add(LogSegment.open(directory.resolve(LogSegment.fileName(0)), 0, this.getSegmentSize()));
+        }
+
+        this.active = this.segments.get(this.segments.size() - 1);
+        this.running = true;
+
+        this.writer = new Thread(this, "message-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(this::stop, "message-log-shutdown"));
+        log.info("Message log opened in {} with {} segment(s); next offset {}.", directory, this.segments.size(), this.getNextOffset());
+    }
+
+    public void stop() {
+        Thread thread;
+        synchronized(this) {
+            if(!this.running) {
+                return;
+            }
+
+            this.running = false;
+            thread = this.writer;
+        }
+
+        try {
+            thread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Queue an entity to be persisted. This never blocks.
+     */
+    public void append(final EncodedEntity entity) {
+        if(!this.running) {
+            return;
+        }
+
+        if(!this.pending.offer(entity)) {
+            ServerMetrics.getInstance().recordDroppedLogAppend();
+        }
+    }
+
+    /**
+     * Read up to maxEntries persisted entities, starting at the given offset. Offsets that have been removed by
+     * retention are skipped.
+     */
+    public List<TransportEntity> read(final long offset, final int maxEntries) throws IOException {
+        List<ByteBuffer> frames = new ArrayList<>();
+        long current = offset;
+        for(LogSegment segment : this.segments) {
+            if(frames.size() >= maxEntries) {
+                break;
+            }
+
+            if(segment.getNextOffset() <= current) {
+                continue;
+            }
+
+            current = Math.max(current, segment.getBaseOffset());
+            current += segment.read(current, maxEntries - frames.size(), frames);
+        }
+
+        List<TransportEntity> entities = new ArrayList<>(frames.size());
+        for(ByteBuffer frame : frames) {
+            frame.position(Frames.HEADER_LENGTH);
+            entities.add(CODEC.decode(frame.slice()));
+        }
+
+        return entities;
+    }
+
+    public long getNextOffset() {
+        LogSegment segment = this.active;
+        return segment == null ? 0 : segment.getNextOffset();
+    }
+
+    @Override
+    public void run() {
+        List<EncodedEntity> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while(true) {
+            EncodedEntity first;
+            try {
+                first = this.pending.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                log.debug("Message log writer interrupted.");
+                first = null;
+            }
+
+            if(first == null) {
+                if(!this.running) {
+                    break;
+                }
+
+                continue;
+            }
+
+            batch.add(first);
+            this.pending.drainTo(batch, MAX_BATCH_SIZE - 1);
+
+            long start = System.nanoTime();
+            for(EncodedEntity entity : batch) {
+                //a failure is confined to its own entity, so that it cannot stop the writer
+                try {
+                    this.write(entity.frame(CODEC));
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Unable to persist message.", e);
+                    ServerMetrics.getInstance().recordDroppedLogAppend();
+                }
+            }
+
+            try {
+                this.active.force();
+            } catch (RuntimeException e) {
+                log.warn("Unable to force message log to disk.", e);
+            }
+
+            ServerMetrics.getInstance().getLogCommit().record(System.nanoTime() - start);
+            batch.clear();
+        }
+
+        this.active.force();
+        log.info("Message log closed at offset {}.", this.getNextOffset());
+    }
+
+    private void write(final ByteBuffer frame) throws IOException {
+        if(this.active.append(frame)) {
+            return;
+        }
+
+        this.roll();
+        if(!this.active.append(frame)) {
+            throw new IOException(String.format("Frame of %d bytes exceeds the log segment size.", frame.remaining()));
+        }
+    }
+
+    private void roll() throws IOException {
+        LogSegment previous = this.active;
+        previous.force();
+
+        long baseOffset = previous.getNextOffset();
+        LogSegment next = LogSegment.open(previous.getPath().resolveSibling(LogSegment.fileName(baseOffset)), baseOffset, this.getSegmentSize());
+        this.segments.add(next);
+        this.active = next;
+        log.debug("Rolled message log to segment {}.", next.getPath().getFileName());
+
+        while(this.segments.size() > Math.max(1, RuntimeConstants.logRetentionSegments)) {
+            LogSegment expired = this.segments.remove(0);
+            expired.delete();
+            log.debug("Deleted expired message log segment {}.", expired.getPath().getFileName());
+        }
+    }
+
+    private long getSegmentSize() {
+        return Math.max(RuntimeConstants.logSegmentSize, Frames.HEADER_LENGTH + Frames.MAX_FRAME_LENGTH);
+    }
+
+    public static MessageLog getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    private static class InstanceHolder {
+        private static final MessageLog INSTANCE = new MessageLog();
+    }
+}
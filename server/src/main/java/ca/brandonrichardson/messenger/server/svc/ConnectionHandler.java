@@ -1,18 +1,29 @@
 package ca.brandonrichardson.messenger.server.svc;
 
+import ca.brandonrichardson.messenger.common.dto.TransportEntity;
+import ca.brandonrichardson.messenger.common.wire.CodecType;
+import ca.brandonrichardson.messenger.common.wire.FrameInflater;
+import ca.brandonrichardson.messenger.common.wire.Frames;
+import ca.brandonrichardson.messenger.common.wire.Handshake;
+import ca.brandonrichardson.messenger.server.core.AdmissionController;
+import ca.brandonrichardson.messenger.server.core.ChannelRegistry;
 import ca.brandonrichardson.messenger.server.core.Connection;
 import ca.brandonrichardson.messenger.server.core.ConnectionPool;
-import ca.brandonrichardson.messenger.server.svc.request.AuthenticationFilter;
-import ca.brandonrichardson.messenger.server.svc.request.RequestHandlerFilter;
-import ca.brandonrichardson.messenger.server.svc.request.SimpleRequestChain;
+import ca.brandonrichardson.messenger.server.core.UserRegistry;
+import ca.brandonrichardson.messenger.server.metrics.ServerMetrics;
+import ca.brandonrichardson.messenger.server.session.SessionPrototype;
+import ca.brandonrichardson.messenger.server.svc.request.RequestChain;
+import ca.brandonrichardson.messenger.server.svc.request.RequestPipeline;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
 import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.Executor;
 
 @Slf4j
 public class ConnectionHandler implements Runnable {
@@ -27,30 +38,73 @@ public class ConnectionHandler implements Runnable {
         (new Thread(this)).start();
     }
 
+    public void start(final Executor executor) {
+        executor.execute(this);
+    }
+
     @Override
     public void run() {
+        FrameInflater inflater = new FrameInflater();
         try(Socket socket = this.connection.getSocket();
-            ObjectOutputStream messageOut = this.connection.getOutputStream();
-            ObjectInputStream messageIn = this.connection.getInputStream()) {
+            DataInputStream messageIn = this.connection.getInputStream()) {
             log.info("Connection handler for {} initialized successfully.", this.connection.getSocket().getInetAddress().getHostAddress());
 
-            //create filter chain
-            SimpleRequestChain.of(
-                    new AuthenticationFilter(),
-                    new RequestHandlerFilter()
-            ).process(connection);
+            CodecType codec = Handshake.negotiate(messageIn);
+            this.connection.getTransport().write(Handshake.selection(codec));
+            this.connection.setCodec(codec.getCodec());
+            log.debug("Negotiated {} codec with {}.", codec, this.connection.getSocket().getInetAddress().getHostAddress());
+
+            RequestChain chain = RequestPipeline.getInstance();
+
+            while(!socket.isClosed()) {
+                ByteBuffer payload = inflater.read(messageIn);
+                ServerMetrics.getInstance().recordBytesIn(Frames.HEADER_LENGTH + payload.remaining());
 
+                TransportEntity entity = this.connection.getCodec().decode(payload);
+                chain.process(this.connection, entity);
+            }
         } catch(EOFException e) {
             log.info("Client {} terminated session.", this.connection.getSession().getUsername());
+        } catch(SocketException e) {
+            log.info("Connection to {} closed.", this.connection.getSession().getUsername());
         } catch (IOException e) {
             log.error("Connection handler thread terminating due to unexpected IOException.", e);
-        } catch (ClassNotFoundException e) {
-            log.error("Connection handler thread terminating due to unexpected ClassNotFoundException.", e);
         } catch (NoSuchAlgorithmException e) {
             log.error("Connection handler thread terminating due to unexpected NoSuchAlgorithmException.", e);
+        } catch (RuntimeException e) {
+            log.error("Connection handler thread terminating due to unexpected exception.", e);
         } finally {
-            this.connection.reset();
-            ConnectionPool.getInstance().releaseConnection(this.connection);
+            inflater.end();
+            this.closeQuietly();
+            ConnectionHandler.release(this.connection);
+        }
+    }
+
+    /**
+     * Return a closed connection to the pool, removing it from every index that references it.
+     */
+    public static void release(final Connection connection) {
+        AdmissionController.getInstance().complete(connection);
+
+        SessionPrototype session = connection.getSession();
+        if(session != null) {
+            session.revoke();
+        }
+
+        if(session != null && session.getUsername() != null) {
+            UserRegistry.getInstance().unregister(session.getUsername(), connection);
+        }
+
+        ChannelRegistry.getInstance().unsubscribeAll(connection);
+        connection.reset();
+        ConnectionPool.getInstance().releaseConnection(connection);
+    }
+
+    private void closeQuietly() {
+        try {
+            this.connection.close();
+        } catch (IOException e) {
+            log.warn("Unable to close connection cleanly.", e);
         }
     }
 }
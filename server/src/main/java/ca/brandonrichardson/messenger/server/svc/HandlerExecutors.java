@@ -0,0 +1,52 @@
+package ca.brandonrichardson.messenger.server.svc;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+public final class HandlerExecutors {
+
+    private HandlerExecutors() {
+        throw new IllegalStateException("Instantiation of HandlerExecutors disallowed.");
+    }
+
+    public static Executor threadPerConnection() {
+        return runnable -> (new Thread(runnable)).start();
+    }
+
+    /**
+     * A fixed pool of daemon threads, numbered after the given name.
+     */
+    public static ExecutorService fixedPool(final String name, final int threads) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, String.format("%s-%d", name, count.getAndIncrement()));
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Virtual threads are looked up reflectively, since the project still targets Java 10. An empty optional is
+     * returned if the running JDK does not support them.
+     */
+    public static Optional<Executor> virtualThreads() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return Optional.of((ExecutorService) factory.invoke(null));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            log.debug("Virtual threads are not available in this runtime.");
+        } catch (InvocationTargetException e) {
+            log.debug("Virtual threads are not enabled in this runtime.", e.getCause());
+        }
+
+        return Optional.empty();
+    }
+}
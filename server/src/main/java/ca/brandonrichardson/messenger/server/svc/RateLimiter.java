@@ -0,0 +1,88 @@
+package ca.brandonrichardson.messenger.server.svc;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets, one per key, each allowing a sustained rate of requests per second and bursts of up to a capacity.
+ *
+ * A bucket is a single timestamp: the time at which it would be full again. Taking a token advances that time by the
+ * interval between tokens with a compare-and-set, and is refused if the bucket would then be more than its capacity
+ * behind; tokens are therefore refilled lazily, by the passage of time, rather than by a timer. A bucket that has
+ * refilled is indistinguishable from a new one, so buckets left idle for a refill period are evicted in the background.
+ */
+public class RateLimiter<K> {
+
+    private static final ScheduledExecutorService SWEEPER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rate-limit-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final long interval;
+
+    private final long tolerance;
+
+    private final Map<K, AtomicLong> buckets;
+
+    /**
+     * @param rate the number of tokens added per second, or zero for no limit.
+     * @param capacity the number of tokens a full bucket holds.
+     */
+    public RateLimiter(final double rate, final int capacity) {
+        this.interval = rate > 0 ? Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / rate)) : 0;
+        this.tolerance = this.interval * Math.max(1, capacity);
+        this.buckets = new ConcurrentHashMap<>();
+
+        if(this.interval > 0) {
+            long period = Math.max(TimeUnit.SECONDS.toNanos(1), this.tolerance);
+            SWEEPER.scheduleWithFixedDelay(this::evict, period, period, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Take a token from the key's bucket.
+     *
+     * @return false if the bucket is empty.
+     */
+    public boolean tryAcquire(final K key) {
+        if(this.interval == 0) {
+            return true;
+        }
+
+        AtomicLong bucket = this.buckets.get(key);
+        if(bucket == null) {
+            bucket = this.buckets.computeIfAbsent(key, k -> new AtomicLong(System.nanoTime()));
+        }
+
+        long now = System.nanoTime();
+        while(true) {
+            long full = bucket.get();
+            long next = (full - now < 0 ? now : full) + this.interval;
+            if(next - now > this.tolerance) {
+                return false;
+            }
+
+            if(bucket.compareAndSet(full, next)) {
+                return true;
+            }
+        }
+    }
+
+    public int size() {
+        return this.buckets.size();
+    }
+
+    /**
+     * Remove the buckets that are full. A request racing with the removal of its bucket may be granted against the
+     * removed bucket, which at worst allows one extra token.
+     */
+    private void evict() {
+        long now = System.nanoTime();
+        this.buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+}
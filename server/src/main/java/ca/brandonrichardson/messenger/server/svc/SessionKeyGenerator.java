@@ -3,16 +3,39 @@ package ca.brandonrichardson.messenger.server.svc;
 import ca.brandonrichardson.messenger.common.keygen.KeyGenerator;
 import ca.brandonrichardson.messenger.common.keygen.strategy.HashGeneratorStrategy;
 
+import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class SessionKeyGenerator {
 
+    private static final Map<String, HashGeneratorStrategy> STRATEGIES = new ConcurrentHashMap<>();
+
+    /**
+     * Sign the username with HMAC-SHA256 keyed by the salt. The strategy for each salt is kept, so that every thread
+     * reuses its initialized Mac.
+     */
     public static String generateSessionKey(final String username, final String salt) throws NoSuchAlgorithmException {
-        return KeyGenerator.generateKey(username + salt, HashGeneratorStrategy.SHA1HashStrategy());
+        HashGeneratorStrategy strategy = STRATEGIES.computeIfAbsent(salt, key -> HashGeneratorStrategy.hmacSha256(key.getBytes(StandardCharsets.UTF_8)));
+        return KeyGenerator.generateKey(username, strategy);
     }
 
     public static boolean isValidSessionKey(final String username, final String salt, final String sessionKey) throws NoSuchAlgorithmException {
         String expected = SessionKeyGenerator.generateSessionKey(username, salt);
-        return expected.equals(sessionKey);
+        return SessionKeyGenerator.constantTimeEquals(expected, sessionKey);
+    }
+
+    public static boolean constantTimeEquals(final String expected, final String actual) {
+        if(expected == null || actual == null || expected.length() != actual.length()) {
+            return false;
+        }
+
+        int difference = 0;
+        for(int i = 0; i < expected.length(); i++) {
+            difference |= expected.charAt(i) ^ actual.charAt(i);
+        }
+
+        return difference == 0;
     }
 }
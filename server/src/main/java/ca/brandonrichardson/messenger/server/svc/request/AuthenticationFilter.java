@@ -1,52 +1,119 @@
 package ca.brandonrichardson.messenger.server.svc.request;
 
 import ca.brandonrichardson.messenger.common.dto.Authentication;
+import ca.brandonrichardson.messenger.common.dto.TransportEntity;
+import ca.brandonrichardson.messenger.common.wire.EncodedEntity;
+import ca.brandonrichardson.messenger.server.core.AdmissionController;
 import ca.brandonrichardson.messenger.server.core.Connection;
+import ca.brandonrichardson.messenger.server.core.UserRegistry;
 import ca.brandonrichardson.messenger.server.infra.RuntimeConstants;
+import ca.brandonrichardson.messenger.server.logging.EventLog;
+import ca.brandonrichardson.messenger.server.logging.LogEvent;
+import ca.brandonrichardson.messenger.server.metrics.ServerMetrics;
+import ca.brandonrichardson.messenger.server.session.SessionPrototype;
+import ca.brandonrichardson.messenger.server.store.MailboxStore;
+import ca.brandonrichardson.messenger.server.store.MessageHistory;
 import ca.brandonrichardson.messenger.server.svc.SessionKeyGenerator;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.security.NoSuchAlgorithmException;
+import java.util.List;
 
 @Slf4j
 public class AuthenticationFilter extends RequestChainFilter {
 
+    private static final int MAX_UNAUTHENTICATED_REQUESTS = 10;
+
     @Override
-    public void process(final Connection connection, final RequestChain next) throws IOException, ClassNotFoundException, NoSuchAlgorithmException {
-        ObjectOutputStream messageOut = connection.getOutputStream();
-        ObjectInputStream messageIn = connection.getInputStream();
-
-        log.info("Processing authentication for {}.", connection.getSocket().getInetAddress().getHostAddress());
-
-        int count = 0;
-        while (true) {
-            Object objIn = messageIn.readObject();
-            if (!(objIn instanceof Authentication)) {
-                if(count++ == 10) {
-                    log.warn("Authentication aborted for {}; exceeded number of attempts.", connection.getSocket().getInetAddress().getHostAddress());
-                    return;
-                }
-
-                continue;
+    public void process(final Connection connection, final TransportEntity entity, final RequestChain next) throws IOException, NoSuchAlgorithmException {
+        if(connection.getSession().getSessionKey() != null) {
+            next.process(connection, entity);
+            return;
+        }
+
+        if (!(entity instanceof Authentication)) {
+            if(connection.recordUnauthenticatedRequest() > MAX_UNAUTHENTICATED_REQUESTS) {
+                log.warn("Authentication aborted for {}; exceeded number of attempts.", connection.getSocket().getInetAddress().getHostAddress());
+                connection.close();
+            }
+
+            return;
+        }
+
+        EventLog.getInstance().record(LogEvent.AUTHENTICATING, connection.getSocket().getInetAddress().getHostAddress());
+        long start = System.nanoTime();
+
+        Authentication auth = (Authentication) entity;
+        if(!UserRegistry.isValidUsername(auth.getUsername())) {
+            EventLog.getInstance().record(LogEvent.AUTHENTICATION_REJECTED, connection.getSocket().getInetAddress().getHostAddress(), "invalid username");
+
+            //a reply without a session key is a rejection; the connection stays subject to the handshake timeout
+            auth.setSessionKey(null);
+            auth.setCompression(false);
+            connection.send(auth);
+            if(connection.recordUnauthenticatedRequest() > MAX_UNAUTHENTICATED_REQUESTS) {
+                connection.close();
+            }
+
+            return;
+        }
+
+        String sessionKey = SessionKeyGenerator.generateSessionKey(auth.getUsername(), RuntimeConstants.secret);
+
+        connection.getSession().setUsername(auth.getUsername());
+        if(RuntimeConstants.sessionTimeToLive > 0) {
+            connection.getSession().setExpiresAt(System.currentTimeMillis() + RuntimeConstants.sessionTimeToLive);
+        }
+        auth.setSessionKey(sessionKey);
+
+        //only clients that offered compression can read the compressed frames written from here on
+        auth.setCompression(auth.isCompression() && RuntimeConstants.compressionThreshold >= 0);
+        if(auth.isCompression()) {
+            connection.enableCompression(RuntimeConstants.compressionThreshold);
+        }
+
+        EventLog.getInstance().record(LogEvent.AUTHENTICATED, auth.getUsername());
+
+        //broadcasts and direct messages only reach a connection once its key is published, so the reply is queued first;
+        //broadcasts are then held until the history replay below has been queued ahead of them
+        connection.send(auth);
+        connection.holdBroadcasts();
+        connection.getSession().setSessionKey(sessionKey);
+        UserRegistry.getInstance().register(auth.getUsername(), connection)
+                .filter(previous -> previous != connection)
+                .map(Connection::getSession)
+                .ifPresent(SessionPrototype::revoke);
+        AdmissionController.getInstance().complete(connection);
+        ServerMetrics.getInstance().getAuthentication().record(System.nanoTime() - start);
+
+        connection.openBroadcasts(() -> {
+            long horizon = MessageHistory.getInstance().getNextSequence();
+            if(auth.getHistoryCount() > 0 || auth.getHistorySince() > 0) {
+                this.replay(connection, auth, horizon);
             }
 
-            Authentication auth = (Authentication) objIn;
-            String sessionKey = SessionKeyGenerator.generateSessionKey(auth.getUsername(), RuntimeConstants.secret);
+            return horizon;
+        });
 
-            connection.getSession().setUsername(auth.getUsername());
-            connection.getSession().setSessionKey(sessionKey);
-            auth.setSessionKey(connection.getSession().getSessionKey());
+        MailboxStore.getInstance().deliver(connection);
+    }
 
-            log.info("Successfully authenticated user {} {}", auth.getUsername(), String.format("%8.8s...", auth.getSessionKey()));
+    /**
+     * Stream recent messages, from before the given history sequence number, to a newly authenticated connection. The
+     * replay is capped at half of the outbound queue so that it can never overflow it.
+     */
+    private void replay(final Connection connection, final Authentication auth, final long end) throws IOException {
+        int limit = RuntimeConstants.outboundQueueCapacity / 2;
+        if(auth.getHistoryCount() > 0) {
+            limit = Math.min(limit, auth.getHistoryCount());
+        }
 
-            messageOut.writeObject(auth);
-            messageOut.flush();
-            break;
+        List<EncodedEntity> history = MessageHistory.getInstance().replay(limit, auth.getHistorySince(), end);
+        for(EncodedEntity entity : history) {
+            connection.send(entity);
         }
 
-        next.process(connection);
+        log.debug("Replayed {} message(s) to {}.", history.size(), auth.getUsername());
     }
 }
@@ -0,0 +1,25 @@
+package ca.brandonrichardson.messenger.server.svc.request;
+
+import ca.brandonrichardson.messenger.common.dto.TransportEntity;
+import ca.brandonrichardson.messenger.server.core.AdmissionController;
+import ca.brandonrichardson.messenger.server.core.Connection;
+
+import java.io.IOException;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Samples the time taken to handle each request for the admission controller, which sheds new connections while
+ * requests are slow.
+ */
+public class LatencySamplingFilter extends RequestChainFilter {
+
+    @Override
+    public void process(final Connection connection, final TransportEntity entity, final RequestChain next) throws IOException, NoSuchAlgorithmException {
+        long start = System.nanoTime();
+        try {
+            next.process(connection, entity);
+        } finally {
+            AdmissionController.getInstance().recordLatency(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ca.brandonrichardson.messenger.server.svc.request;
+
+import ca.brandonrichardson.messenger.common.dto.Authentication;
+import ca.brandonrichardson.messenger.common.dto.TransportEntity;
+import ca.brandonrichardson.messenger.server.core.Connection;
+import ca.brandonrichardson.messenger.server.infra.RuntimeConstants;
+import ca.brandonrichardson.messenger.server.logging.EventLog;
+import ca.brandonrichardson.messenger.server.logging.LogEvent;
+import ca.brandonrichardson.messenger.server.metrics.ServerMetrics;
+import ca.brandonrichardson.messenger.server.session.SessionPrototype;
+import ca.brandonrichardson.messenger.server.svc.RateLimiter;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Throttles requests before they reach the rest of the chain. Authentications are limited per source address, and
+ * a connection whose address has run out is closed; once authenticated, requests are limited per username, and those
+ * over the limit are dropped.
+ */
+public class RateLimitFilter extends RequestChainFilter {
+
+    private final RateLimiter<InetAddress> addresses;
+
+    private final RateLimiter<String> users;
+
+    public RateLimitFilter() {
+        this.addresses = new RateLimiter<>(RuntimeConstants.addressRateLimit, RuntimeConstants.addressRateBurst);
+        this.users = new RateLimiter<>(RuntimeConstants.userRateLimit, RuntimeConstants.userRateBurst);
+    }
+
+    @Override
+    public void process(final Connection connection, final TransportEntity entity, final RequestChain next) throws IOException, NoSuchAlgorithmException {
+        SessionPrototype session = connection.getSession();
+        if(session.getSessionKey() != null) {
+            if(!this.users.tryAcquire(session.getUsername())) {
+                EventLog.getInstance().record(LogEvent.USER_RATE_LIMITED, session.getUsername());
+                ServerMetrics.getInstance().recordRateLimitedRequest();
+                return;
+            }
+        } else if(entity instanceof Authentication && !this.addresses.tryAcquire(connection.getSocket().getInetAddress())) {
+            EventLog.getInstance().record(LogEvent.ADDRESS_RATE_LIMITED, connection.getSocket().getInetAddress().getHostAddress());
+            ServerMetrics.getInstance().recordRateLimitedRequest();
+            connection.close();
+            return;
+        }
+
+        next.process(connection, entity);
+    }
+}
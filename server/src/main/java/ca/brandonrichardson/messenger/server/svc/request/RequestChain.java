@@ -1,5 +1,6 @@
 package ca.brandonrichardson.messenger.server.svc.request;
 
+import ca.brandonrichardson.messenger.common.dto.TransportEntity;
 import ca.brandonrichardson.messenger.server.core.Connection;
 
 import java.io.IOException;
@@ -7,5 +8,5 @@ import java.security.NoSuchAlgorithmException;
 
 public interface RequestChain {
 
-    default void process(final Connection connection) throws NoSuchAlgorithmException, IOException, ClassNotFoundException {}
+    default void process(final Connection connection, final TransportEntity entity) throws NoSuchAlgorithmException, IOException {}
 }
@@ -1,26 +1,37 @@
 package ca.brandonrichardson.messenger.server.svc.request;
 
+import ca.brandonrichardson.messenger.common.dto.TransportEntity;
+import ca.brandonrichardson.messenger.common.metrics.Histogram;
 import ca.brandonrichardson.messenger.server.core.Connection;
+import ca.brandonrichardson.messenger.server.metrics.ServerMetrics;
 
 import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
 
-public abstract class RequestChainFilter implements RequestChain {
+/**
+ * A stage of a request chain. A filter is shared by every connection that the chain serves, so it must not keep
+ * per-connection state in its fields; such state belongs to the {@link Connection} or its session.
+ */
+public abstract class RequestChainFilter {
 
-    private RequestChainFilter next;
+    private final Histogram latency;
 
     public RequestChainFilter() {
-        this.next = null;
+        this.latency = ServerMetrics.getInstance().filter(this.getClass().getSimpleName());
     }
 
-    @Override
-    public void process(final Connection connection) throws NoSuchAlgorithmException, IOException, ClassNotFoundException {
-        this.process(connection, next);
+    /**
+     * Run this filter and, through it, the rest of the chain. The latency recorded for the filter therefore includes
+     * the time spent in the filters that follow it.
+     */
+    final void apply(final Connection connection, final TransportEntity entity, final RequestChain next) throws NoSuchAlgorithmException, IOException {
+        long start = System.nanoTime();
+        try {
+            this.process(connection, entity, next);
+        } finally {
+            this.latency.record(System.nanoTime() - start);
+        }
     }
 
-    public abstract void process(final Connection connection, final RequestChain next) throws NoSuchAlgorithmException, IOException, ClassNotFoundException;
-
-    public void setNext(final RequestChainFilter filter) {
-        this.next = filter;
-    }
+    public abstract void process(final Connection connection, final TransportEntity entity, final RequestChain next) throws NoSuchAlgorithmException, IOException;
 }
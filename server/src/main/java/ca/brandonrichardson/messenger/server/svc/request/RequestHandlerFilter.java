@@ -1,49 +1,121 @@
 package ca.brandonrichardson.messenger.server.svc.request;
 
 import ca.brandonrichardson.messenger.common.dto.Message;
+import ca.brandonrichardson.messenger.common.dto.TransportEntity;
+import ca.brandonrichardson.messenger.common.wire.EncodedEntity;
+import ca.brandonrichardson.messenger.server.core.ChannelRegistry;
 import ca.brandonrichardson.messenger.server.core.Connection;
 import ca.brandonrichardson.messenger.server.core.ConnectionPool;
-import ca.brandonrichardson.messenger.server.infra.RuntimeConstants;
-import ca.brandonrichardson.messenger.server.svc.SessionKeyGenerator;
-import lombok.extern.slf4j.Slf4j;
+import ca.brandonrichardson.messenger.server.core.UserRegistry;
+import ca.brandonrichardson.messenger.server.logging.EventLog;
+import ca.brandonrichardson.messenger.server.logging.LogEvent;
+import ca.brandonrichardson.messenger.server.metrics.ServerMetrics;
+import ca.brandonrichardson.messenger.server.session.SessionPrototype;
+import ca.brandonrichardson.messenger.server.store.MailboxStore;
+import ca.brandonrichardson.messenger.server.store.MessageHistory;
+import ca.brandonrichardson.messenger.server.store.MessageLog;
 
 import java.io.IOException;
-import java.io.ObjectInputStream;
 import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Optional;
 
-@Slf4j
 public class RequestHandlerFilter extends RequestChainFilter {
 
     @Override
-    public void process(final Connection connection, final RequestChain next) throws IOException, ClassNotFoundException, NoSuchAlgorithmException {
-        ObjectInputStream messageIn = connection.getInputStream();
-
-        while (true) {
-            Object objIn = messageIn.readObject();
-
-            if (objIn instanceof Message) {
-                log.info("Message received from {}", connection.getSession().getUsername());
-
-                Message message = (Message) objIn;
-                if (!SessionKeyGenerator.isValidSessionKey(connection.getSession().getUsername(), RuntimeConstants.secret, message.getSessionKey())) {
-                    log.info("Invalid session key for user {}; dropping connection.", connection.getSession().getUsername());
-                    break;
-                }
-
-                message.setSessionKey(null);
-                log.info("Broadcasting message from {}.", connection.getSession().getUsername());
-
-                ConnectionPool.getInstance().getActiveConnections().parallelStream().forEach((c) -> {
-                    try {
-                        c.getOutputStream().writeObject(message);
-                        log.trace("Message broadcasted to {}.", c.getSession().getUsername());
-                    } catch (IOException e) {
-                        log.warn("Unable to broadcast message to {}.", c.getSession().getUsername());
-                    }
-                });
-            } else {
-                log.warn("Unexpected message received from {}.", connection.getSession().getUsername());
+    public void process(final Connection connection, final TransportEntity entity, final RequestChain next) throws IOException, NoSuchAlgorithmException {
+        if (!(entity instanceof Message)) {
+            EventLog.getInstance().record(LogEvent.UNEXPECTED_ENTITY, connection.getSession().getUsername());
+            return;
+        }
+
+        EventLog.getInstance().record(LogEvent.MESSAGE_RECEIVED, connection.getSession().getUsername());
+
+        Message message = (Message) entity;
+        if (!connection.getSession().verify(message.getSessionKey())) {
+            EventLog.getInstance().record(LogEvent.INVALID_SESSION_KEY, connection.getSession().getUsername());
+            connection.close();
+            return;
+        }
+
+        //the sender is whoever the session authenticated as, whatever the client claims
+        message.setSessionKey(null);
+        message.setSenderUsername(connection.getSession().getUsername());
+
+        if(message.getType() == TransportEntity.EntityType.DIRECT) {
+            this.deliverDirect(connection, message);
+            return;
+        }
+
+        Collection<Connection> recipients;
+        if(message.getChannel() == null) {
+            EventLog.getInstance().record(LogEvent.BROADCAST, connection.getSession().getUsername());
+            recipients = ConnectionPool.getInstance().getActiveConnections();
+        } else if(ChannelRegistry.getInstance().isSubscribed(message.getChannel(), connection)) {
+            EventLog.getInstance().record(LogEvent.CHANNEL_MESSAGE, connection.getSession().getUsername(), message.getChannel());
+            recipients = ChannelRegistry.getInstance().getSubscribers(message.getChannel());
+        } else {
+            EventLog.getInstance().record(LogEvent.NOT_SUBSCRIBED, connection.getSession().getUsername(), message.getChannel());
+            return;
+        }
+
+        long start = System.nanoTime();
+        EncodedEntity encoded = new EncodedEntity(message);
+        MessageLog.getInstance().append(encoded);
+        long sequence = message.getChannel() == null ? MessageHistory.getInstance().append(encoded) : -1;
+
+        for(Connection c : recipients) {
+            SessionPrototype session = c.getSession();
+            if(session == null || session.getSessionKey() == null || session.isRevoked()) {
+                continue;
+            }
+
+            //broadcasts from before the recipient authenticated are left to its history replay
+            if(sequence >= 0 && !c.acceptsBroadcast(sequence)) {
+                continue;
             }
+
+            try {
+                c.send(encoded);
+                EventLog.getInstance().record(LogEvent.MESSAGE_QUEUED, session.getUsername());
+            } catch (IOException e) {
+                EventLog.getInstance().record(LogEvent.BROADCAST_FAILED, session.getUsername());
+            }
+        }
+
+        ServerMetrics.getInstance().getBroadcastFanOut().record(System.nanoTime() - start);
+    }
+
+    private void deliverDirect(final Connection connection, final Message message) throws IOException {
+        if(!UserRegistry.isValidUsername(message.getRecipientUsername())) {
+            EventLog.getInstance().record(LogEvent.DIRECT_DROPPED, message.getRecipientUsername(), connection.getSession().getUsername());
+            return;
+        }
+
+        EncodedEntity encoded = new EncodedEntity(message);
+        MessageLog.getInstance().append(encoded);
+
+        //while the recipient has held messages, new ones are held behind them so that they are delivered in order
+        Optional<Connection> recipient = UserRegistry.getInstance().lookup(message.getRecipientUsername());
+        if(recipient.isPresent() && !MailboxStore.getInstance().isHolding(message.getRecipientUsername())) {
+            EventLog.getInstance().record(LogEvent.DIRECT_DELIVERED, connection.getSession().getUsername(), message.getRecipientUsername());
+            try {
+                recipient.get().send(encoded);
+            } catch (IOException e) {
+                EventLog.getInstance().record(LogEvent.DIRECT_FAILED, message.getRecipientUsername());
+            }
+        } else if(MailboxStore.getInstance().deposit(message.getRecipientUsername(), encoded)) {
+            EventLog.getInstance().record(LogEvent.DIRECT_HELD, connection.getSession().getUsername(), message.getRecipientUsername());
+
+            //the recipient may have authenticated, and drained their mailbox, since the lookup
+            UserRegistry.getInstance().lookup(message.getRecipientUsername()).ifPresent(MailboxStore.getInstance()::deliver);
+        } else {
+            EventLog.getInstance().record(LogEvent.DIRECT_DROPPED, message.getRecipientUsername(), connection.getSession().getUsername());
+            return;
+        }
+
+        if(!recipient.isPresent() || recipient.get() != connection) {
+            connection.send(encoded);
         }
     }
 }
@@ -0,0 +1,26 @@
+package ca.brandonrichardson.messenger.server.svc.request;
+
+/**
+ * The request chain run for every entity decoded from any connection. Its filters are stateless, so it is composed
+ * once, on first use, and shared; a new stage is added here rather than in the connection handlers.
+ */
+public final class RequestPipeline {
+
+    private RequestPipeline() {
+        throw new IllegalStateException("Instantiation of RequestPipeline disallowed.");
+    }
+
+    public static RequestChain getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    private static class InstanceHolder {
+        private static final RequestChain INSTANCE = SimpleRequestChain.of(
+                new LatencySamplingFilter(),
+                new RateLimitFilter(),
+                new AuthenticationFilter(),
+                new SubscriptionFilter(),
+                new RequestHandlerFilter()
+        );
+    }
+}
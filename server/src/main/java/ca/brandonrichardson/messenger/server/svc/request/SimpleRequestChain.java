@@ -1,30 +1,39 @@
 package ca.brandonrichardson.messenger.server.svc.request;
 
+import ca.brandonrichardson.messenger.common.dto.TransportEntity;
 import ca.brandonrichardson.messenger.server.core.Connection;
 
 import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
 
-public class SimpleRequestChain implements RequestChain {
+/**
+ * An immutable request chain. Each link holds a filter and the rest of the chain after it, so a chain is composed once
+ * and then safely run for any number of connections at the same time.
+ */
+public final class SimpleRequestChain implements RequestChain {
 
-    private RequestChainFilter[] filters;
+    private static final RequestChain END_OF_CHAIN = new RequestChain() {};
 
-    private SimpleRequestChain(final RequestChainFilter[] filters) {
-        this.filters = filters;
+    private final RequestChainFilter filter;
+
+    private final RequestChain next;
+
+    private SimpleRequestChain(final RequestChainFilter filter, final RequestChain next) {
+        this.filter = filter;
+        this.next = next;
     }
 
     @Override
-    public void process(final Connection connection) throws NoSuchAlgorithmException, IOException, ClassNotFoundException {
-        for(int i = 0; i < filters.length - 1; i++) {
-            filters[i].setNext(filters[i+1]);
-        }
+    public void process(final Connection connection, final TransportEntity entity) throws NoSuchAlgorithmException, IOException {
+        this.filter.apply(connection, entity, this.next);
+    }
 
-        if(filters.length > 0) {
-            filters[0].process(connection);
+    public static RequestChain of(final RequestChainFilter... filters) {
+        RequestChain chain = END_OF_CHAIN;
+        for(int i = filters.length - 1; i >= 0; i--) {
+            chain = new SimpleRequestChain(filters[i], chain);
         }
-    }
 
-    public static SimpleRequestChain of(final RequestChainFilter... filters) {
-        return new SimpleRequestChain(filters);
+        return chain;
     }
 }
@@ -0,0 +1,52 @@
+package ca.brandonrichardson.messenger.server.svc.request;
+
+import ca.brandonrichardson.messenger.common.dto.Subscription;
+import ca.brandonrichardson.messenger.common.dto.TransportEntity;
+import ca.brandonrichardson.messenger.server.core.ChannelRegistry;
+import ca.brandonrichardson.messenger.server.core.Connection;
+import ca.brandonrichardson.messenger.server.logging.EventLog;
+import ca.brandonrichardson.messenger.server.logging.LogEvent;
+
+import java.io.IOException;
+import java.security.NoSuchAlgorithmException;
+
+public class SubscriptionFilter extends RequestChainFilter {
+
+    private static final int MAX_CHANNEL_NAME_LENGTH = 64;
+
+    @Override
+    public void process(final Connection connection, final TransportEntity entity, final RequestChain next) throws IOException, NoSuchAlgorithmException {
+        if (!(entity instanceof Subscription)) {
+            next.process(connection, entity);
+            return;
+        }
+
+        Subscription subscription = (Subscription) entity;
+        if (!connection.getSession().verify(subscription.getSessionKey())) {
+            EventLog.getInstance().record(LogEvent.SUBSCRIPTION_KEY_INVALID, connection.getSession().getUsername());
+            connection.close();
+            return;
+        }
+
+        String channel = subscription.getChannel();
+        if(channel == null || channel.isEmpty() || channel.length() > MAX_CHANNEL_NAME_LENGTH) {
+            EventLog.getInstance().record(LogEvent.INVALID_CHANNEL, connection.getSession().getUsername());
+            return;
+        }
+
+        switch(subscription.getType()) {
+            case JOIN:
+                ChannelRegistry.getInstance().subscribe(channel, connection);
+                break;
+            case LEAVE:
+                ChannelRegistry.getInstance().unsubscribe(channel, connection);
+                break;
+            default:
+                EventLog.getInstance().record(LogEvent.UNEXPECTED_SUBSCRIPTION, connection.getSession().getUsername());
+                return;
+        }
+
+        subscription.setSessionKey(null);
+        connection.send(subscription);
+    }
+}
@@ -0,0 +1,40 @@
+package ca.brandonrichardson.messenger.server.time;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Wall clock with millisecond resolution, kept in a volatile field that a daemon thread refreshes every millisecond.
+ * Reading it costs no more than a field access, so it can be used freely on the message path, where it may lag the
+ * system clock by up to a tick. The refreshing thread is started the first time the clock is read.
+ */
+public final class CachedClock {
+
+    private static final long TICK = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static volatile long now = System.currentTimeMillis();
+
+    static {
+        Thread ticker = new Thread(CachedClock::tick, "cached-clock");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    private CachedClock() {
+        throw new IllegalStateException("Instantiation of CachedClock disallowed.");
+    }
+
+    /**
+     * @return the current time in epoch milliseconds.
+     */
+    public static long currentTimeMillis() {
+        return now;
+    }
+
+    private static void tick() {
+        while(true) {
+            now = System.currentTimeMillis();
+            LockSupport.parkNanos(TICK);
+        }
+    }
+}
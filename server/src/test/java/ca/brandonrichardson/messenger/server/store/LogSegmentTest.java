@@ -0,0 +1,127 @@
+package ca.brandonrichardson.messenger.server.store;
+
+import ca.brandonrichardson.messenger.common.wire.FrameOutputStream;
+import ca.brandonrichardson.messenger.common.wire.Frames;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogSegmentTest {
+
+    private static final long CAPACITY = 64 * 1024;
+
+    private Path directory;
+
+    private Path path;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        this.directory = Files.createTempDirectory("log-segment");
+        this.path = this.directory.resolve(LogSegment.fileName(100));
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try(Stream<Path> paths = Files.walk(this.directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    void appendedFramesAreRead() throws IOException {
+        LogSegment segment = LogSegment.open(this.path, 100, CAPACITY);
+        for(int i = 0; i < 10; i++) {
+            assertTrue(segment.append(LogSegmentTest.frameOf("message " + i)));
+        }
+
+        assertEquals(110, segment.getNextOffset());
+        LogSegmentTest.assertFrames(segment, 103, 4, "message 3", "message 4", "message 5", "message 6");
+        LogSegmentTest.assertFrames(segment, 99, 4);
+        LogSegmentTest.assertFrames(segment, 110, 4);
+        segment.close();
+    }
+
+    @Test
+    void recoveryRestoresTheEndOfTheLogAndItsIndex() throws IOException {
+        LogSegment segment = LogSegment.open(this.path, 100, CAPACITY);
+        //enough records to span several index intervals
+        for(int i = 0; i < 500; i++) {
+            segment.append(LogSegmentTest.frameOf("message " + i));
+        }
+
+        int size = segment.getSize();
+        segment.force();
+        segment.close();
+
+        LogSegment recovered = LogSegment.open(this.path, 100, CAPACITY);
+        assertEquals(600, recovered.getNextOffset());
+        assertEquals(size, recovered.getSize());
+        LogSegmentTest.assertFrames(recovered, 100, 1, "message 0");
+        LogSegmentTest.assertFrames(recovered, 450, 2, "message 350", "message 351");
+        LogSegmentTest.assertFrames(recovered, 599, 5, "message 499");
+
+        assertTrue(recovered.append(LogSegmentTest.frameOf("after recovery")));
+        LogSegmentTest.assertFrames(recovered, 600, 1, "after recovery");
+        recovered.close();
+    }
+
+    @Test
+    void recoveryStopsAtAnInvalidLength() throws IOException {
+        LogSegment segment = LogSegment.open(this.path, 100, CAPACITY);
+        segment.append(LogSegmentTest.frameOf("first"));
+        segment.append(LogSegmentTest.frameOf("second"));
+        int size = segment.getSize();
+        segment.force();
+        segment.close();
+
+        //a torn write: a length header pointing past the end of the segment
+        try(FileChannel channel = FileChannel.open(this.path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Frames.HEADER_LENGTH).putInt(0, (int) CAPACITY), size);
+        }
+
+        LogSegment recovered = LogSegment.open(this.path, 100, CAPACITY);
+        assertEquals(102, recovered.getNextOffset());
+        assertEquals(size, recovered.getSize());
+        LogSegmentTest.assertFrames(recovered, 100, 5, "first", "second");
+        recovered.close();
+    }
+
+    @Test
+    void appendIsRefusedWhenFull() throws IOException {
+        LogSegment segment = LogSegment.open(this.path, 0, 64);
+        assertTrue(segment.append(LogSegmentTest.frameOf("0123456789")));
+        assertFalse(segment.append(LogSegmentTest.frameOf("0123456789012345678901234567890123456789012345678901234567")));
+        assertEquals(1, segment.getNextOffset());
+        segment.close();
+    }
+
+    private static ByteBuffer frameOf(final String text) {
+        FrameOutputStream frame = new FrameOutputStream();
+        frame.writeString(text);
+        return frame.toFrame();
+    }
+
+    private static void assertFrames(final LogSegment segment, final long offset, final int maxEntries, final String... expected) {
+        List<ByteBuffer> frames = new ArrayList<>();
+        assertEquals(expected.length, segment.read(offset, maxEntries, frames));
+        for(int i = 0; i < expected.length; i++) {
+            assertEquals(LogSegmentTest.frameOf(expected[i]), frames.get(i));
+        }
+    }
+}
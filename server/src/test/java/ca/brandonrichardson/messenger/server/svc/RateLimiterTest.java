@@ -0,0 +1,48 @@
+package ca.brandonrichardson.messenger.server.svc;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+
+    @Test
+    void zeroRateIsUnlimited() {
+        RateLimiter<String> limiter = new RateLimiter<>(0, 1);
+        for(int i = 0; i < 1000; i++) {
+            assertTrue(limiter.tryAcquire("a"));
+        }
+
+        assertEquals(0, limiter.size());
+    }
+
+    @Test
+    void burstIsLimitedToCapacity() {
+        RateLimiter<String> limiter = new RateLimiter<>(1, 3);
+        assertTrue(limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a"));
+        assertFalse(limiter.tryAcquire("a"));
+    }
+
+    @Test
+    void keysHaveSeparateBuckets() {
+        RateLimiter<String> limiter = new RateLimiter<>(1, 1);
+        assertTrue(limiter.tryAcquire("a"));
+        assertFalse(limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("b"));
+        assertEquals(2, limiter.size());
+    }
+
+    @Test
+    void bucketRefillsOverTime() throws InterruptedException {
+        RateLimiter<String> limiter = new RateLimiter<>(10, 1);
+        assertTrue(limiter.tryAcquire("a"));
+        assertFalse(limiter.tryAcquire("a"));
+
+        Thread.sleep(150);
+        assertTrue(limiter.tryAcquire("a"));
+    }
+}